@@ -0,0 +1,77 @@
+package com.company.ecommerce.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.company.ecommerce.dto.product.ProductDto;
+import com.company.ecommerce.enums.Role;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.Category;
+import com.company.ecommerce.model.Order;
+import com.company.ecommerce.model.OrderItem;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+
+/**
+ * Detached entities shaped like production rows, shared by the benchmarks.
+ */
+public class BenchmarkData {
+
+	public static User user() {
+		User user = new User("Jane", "Doe", "jane.doe@example.com", Role.user, "secret");
+		user.setId(1);
+		return user;
+	}
+
+	public static List<Product> products(int size) {
+		Category category = new Category("Shoes", "Running and trail shoes", "https://example.com/shoes.png");
+		category.setId(1);
+		List<Product> products = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Product product = new Product("Running shoe " + i, "https://example.com/products/" + i + ".png",
+					10 + (i % 500) * 0.99, "Lightweight running shoe with breathable mesh upper, model " + i,
+					category);
+			product.setId(i + 1);
+			products.add(product);
+		}
+		return products;
+	}
+
+	public static List<ProductDto> productDtos(int size) {
+		List<ProductDto> productDtos = new ArrayList<>(size);
+		for (Product product : products(size)) {
+			productDtos.add(new ProductDto(product));
+		}
+		return productDtos;
+	}
+
+	public static List<Cart> carts(int size) {
+		User user = user();
+		List<Cart> carts = new ArrayList<>(size);
+		int quantity = 1;
+		for (Product product : products(size)) {
+			Cart cart = new Cart(product, quantity, user);
+			cart.setId(product.getId());
+			carts.add(cart);
+			quantity = quantity % 5 + 1;
+		}
+		return carts;
+	}
+
+	public static Order order(int size) {
+		Order order = new Order();
+		order.setId(1);
+		order.setUser(user());
+		order.setCreatedDate(new Date());
+		List<OrderItem> orderItems = new ArrayList<>(size);
+		double totalPrice = 0;
+		for (Cart cart : carts(size)) {
+			orderItems.add(new OrderItem(order, cart.getProduct(), cart.getQuantity(), cart.getProduct().getPrice()));
+			totalPrice += cart.getProduct().getPrice() * cart.getQuantity();
+		}
+		order.setOrderItems(orderItems);
+		order.setTotalPrice(totalPrice);
+		return order;
+	}
+}
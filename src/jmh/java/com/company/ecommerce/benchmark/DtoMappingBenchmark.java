@@ -0,0 +1,57 @@
+package com.company.ecommerce.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.company.ecommerce.dto.cart.CartItemDto;
+import com.company.ecommerce.dto.product.ProductDto;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.Product;
+
+/**
+ * Cost of the entity to DTO constructors run for every listed product and
+ * cart line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+
+	private static final int SIZE = 1024;
+
+	private List<Product> products;
+	private List<Cart> carts;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		products = BenchmarkData.products(SIZE);
+		carts = BenchmarkData.carts(SIZE);
+	}
+
+	@Benchmark
+	public ProductDto productDto() {
+		return new ProductDto(products.get(next++ & (SIZE - 1)));
+	}
+
+	@Benchmark
+	public CartItemDto cartItemDto() {
+		return new CartItemDto(carts.get(next++ & (SIZE - 1)));
+	}
+
+	@Benchmark
+	public void productDtoList(Blackhole blackhole) {
+		for (Product product : products) {
+			blackhole.consume(new ProductDto(product));
+		}
+	}
+}
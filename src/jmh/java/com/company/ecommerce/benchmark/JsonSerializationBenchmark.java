@@ -0,0 +1,71 @@
+package com.company.ecommerce.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.company.ecommerce.dto.cart.CartDto;
+import com.company.ecommerce.dto.cart.CartItemDto;
+import com.company.ecommerce.dto.product.ProductDto;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson serialization of the response bodies of GET /carts, GET /orders and
+ * GET /products, using an ObjectMapper configured like the one Spring MVC
+ * uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	public int size;
+
+	private ObjectMapper objectMapper;
+	private CartDto cartDto;
+	private Order order;
+	private List<ProductDto> productDtos;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		List<CartItemDto> cartItems = new ArrayList<>(size);
+		double totalCost = 0;
+		for (Cart cart : BenchmarkData.carts(size)) {
+			cartItems.add(new CartItemDto(cart));
+			totalCost += cart.getProduct().getPrice() * cart.getQuantity();
+		}
+		cartDto = new CartDto(cartItems, totalCost);
+		order = BenchmarkData.order(size);
+		productDtos = BenchmarkData.productDtos(size);
+	}
+
+	@Benchmark
+	public byte[] cartDto() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(cartDto);
+	}
+
+	@Benchmark
+	public byte[] order() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(order);
+	}
+
+	@Benchmark
+	public byte[] productDtoList() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(productDtos);
+	}
+}
@@ -0,0 +1,61 @@
+package com.company.ecommerce.pricing;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.company.ecommerce.benchmark.BenchmarkData;
+import com.company.ecommerce.dto.cart.CartItemDto;
+import com.company.ecommerce.model.Cart;
+
+/**
+ * Cart total computed the way CartService used to, summing doubles over a list
+ * of CartItemDto built for the purpose, against PriceCalculator summing minor
+ * units straight off the lines. Run with the gc profiler to compare the
+ * allocation rate as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PricingBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	public int size;
+
+	private List<Cart> carts;
+	private PriceCalculator priceCalculator;
+
+	@Setup
+	public void setUp() {
+		carts = BenchmarkData.carts(size);
+		priceCalculator = new PriceCalculator("USD", RoundingMode.HALF_UP);
+	}
+
+	@Benchmark
+	public double doubleTotal() {
+		List<CartItemDto> cartItems = new ArrayList<>();
+		for (Cart cart : carts) {
+			cartItems.add(new CartItemDto(cart));
+		}
+		double totalCost = 0;
+		for (CartItemDto cartItemDto : cartItems) {
+			totalCost += (cartItemDto.getProduct().getPrice() * cartItemDto.getQuantity());
+		}
+		return totalCost;
+	}
+
+	@Benchmark
+	public long minorUnitTotal() {
+		return priceCalculator.total(carts);
+	}
+}
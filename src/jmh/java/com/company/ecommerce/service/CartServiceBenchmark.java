@@ -0,0 +1,59 @@
+package com.company.ecommerce.service;
+
+import java.lang.reflect.Proxy;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.company.ecommerce.benchmark.BenchmarkData;
+import com.company.ecommerce.cart.CartStore;
+import com.company.ecommerce.dto.cart.CartDto;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.pricing.PriceCalculator;
+
+/**
+ * CartService.listCartItems over an in-memory cart store, so only the DTO
+ * mapping and total computation are measured. Lives in the service package to
+ * wire the package-private fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CartServiceBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	public int size;
+
+	private CartService cartService;
+	private User user;
+
+	@Setup
+	public void setUp() {
+		List<Cart> carts = BenchmarkData.carts(size);
+		user = carts.get(0).getUser();
+		cartService = new CartService();
+		cartService.priceCalculator = new PriceCalculator("USD", RoundingMode.HALF_UP);
+		cartService.store = (CartStore) Proxy.newProxyInstance(CartStore.class.getClassLoader(),
+				new Class<?>[] { CartStore.class }, (proxy, method, args) -> {
+					if (method.getName().equals("findByUser")) {
+						return carts;
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	@Benchmark
+	public CartDto listCartItems() {
+		return cartService.listCartItems(user);
+	}
+}
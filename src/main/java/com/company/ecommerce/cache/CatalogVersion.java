@@ -0,0 +1,29 @@
+package com.company.ecommerce.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of the product catalog, bumped on every product or category write.
+ * Catalog responses use it as their strong ETag; the startup time is part of
+ * the tag so tags handed out before a restart never match again.
+ */
+@Component
+public class CatalogVersion {
+
+	private final long epoch = System.currentTimeMillis();
+	private final AtomicLong version = new AtomicLong();
+
+	public void increment() {
+		version.incrementAndGet();
+	}
+
+	public long get() {
+		return version.get();
+	}
+
+	public String getETag() {
+		return "\"" + epoch + "-" + version.get() + "\"";
+	}
+}
@@ -0,0 +1,127 @@
+package com.company.ecommerce.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.company.ecommerce.dto.cache.CacheStatsDto;
+import com.company.ecommerce.dto.product.ProductDto;
+
+/**
+ * Bounded in-process cache of product snapshots by id. Entries are evicted
+ * least recently used first once the cache is full and expire after a fixed
+ * time to live. ProductService keeps it in sync with its own writes. Entries
+ * are ProductDto copies rather than entities, so they hold no persistence
+ * context state and callers get their own copy to change.
+ */
+@Component
+public class ProductCache {
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LinkedHashMap<Integer, CachedProduct> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	public ProductCache(@Value("${ecommerce.cache.product.max-size:10000}") int maxSize,
+			@Value("${ecommerce.cache.product.ttl-seconds:600}") long ttlSeconds) {
+		this.maxSize = maxSize;
+		this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+		this.entries = new LinkedHashMap<Integer, CachedProduct>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, CachedProduct> eldest) {
+				if (size() > ProductCache.this.maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public ProductDto get(Integer productId) {
+		synchronized (entries) {
+			CachedProduct cached = entries.get(productId);
+			if (cached != null) {
+				if (cached.expiresAt - System.nanoTime() > 0) {
+					hits.incrementAndGet();
+					return copy(cached.product);
+				}
+				entries.remove(productId);
+				evictions.incrementAndGet();
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	public void put(ProductDto product) {
+		CachedProduct cached = new CachedProduct(copy(product), System.nanoTime() + ttlNanos);
+		synchronized (entries) {
+			entries.put(product.getId(), cached);
+		}
+	}
+
+	public void invalidate(Integer productId) {
+		synchronized (entries) {
+			entries.remove(productId);
+		}
+	}
+
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Drops expired entries so they do not hold memory until they are looked up
+	 * again.
+	 */
+	@Scheduled(fixedDelayString = "${ecommerce.cache.product.cleanup-interval-ms:60000}")
+	public void evictExpired() {
+		long now = System.nanoTime();
+		synchronized (entries) {
+			Iterator<CachedProduct> iterator = entries.values().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().expiresAt - now <= 0) {
+					iterator.remove();
+					evictions.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	public CacheStatsDto getStats() {
+		int size;
+		synchronized (entries) {
+			size = entries.size();
+		}
+		return new CacheStatsDto(hits.get(), misses.get(), evictions.get(), size, maxSize);
+	}
+
+	private static ProductDto copy(ProductDto product) {
+		return new ProductDto(product.getId(), product.getName(), product.getImageURL(), product.getPrice(),
+				product.getDescription(), product.getCategoryId());
+	}
+
+	private static final class CachedProduct {
+		private final ProductDto product;
+		private final long expiresAt;
+
+		private CachedProduct(ProductDto product, long expiresAt) {
+			this.product = product;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
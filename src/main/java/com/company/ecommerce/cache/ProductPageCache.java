@@ -0,0 +1,95 @@
+package com.company.ecommerce.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-process cache of product listing pages, holding only the product
+ * ids and next cursor of each page; the products themselves are read from
+ * ProductCache. Keys carry the catalog version read before the page was
+ * loaded, so a page loaded before a product write is never returned after it.
+ */
+@Component
+public class ProductPageCache {
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LinkedHashMap<String, CachedPage> pages;
+
+	public ProductPageCache(@Value("${ecommerce.cache.product-page.max-size:1000}") int maxSize,
+			@Value("${ecommerce.cache.product-page.ttl-seconds:600}") long ttlSeconds) {
+		this.maxSize = maxSize;
+		this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+		this.pages = new LinkedHashMap<String, CachedPage>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+				return size() > ProductPageCache.this.maxSize;
+			}
+		};
+	}
+
+	public CachedPage get(String key) {
+		synchronized (pages) {
+			CachedPage page = pages.get(key);
+			if (page != null && page.expiresAt - System.nanoTime() <= 0) {
+				pages.remove(key);
+				return null;
+			}
+			return page;
+		}
+	}
+
+	public void put(String key, List<Integer> productIds, String nextCursor) {
+		CachedPage page = new CachedPage(productIds, nextCursor, System.nanoTime() + ttlNanos);
+		synchronized (pages) {
+			pages.put(key, page);
+		}
+	}
+
+	/**
+	 * Drops expired pages, including those of earlier catalog versions that
+	 * can no longer be looked up.
+	 */
+	@Scheduled(fixedDelayString = "${ecommerce.cache.product.cleanup-interval-ms:60000}")
+	public void evictExpired() {
+		long now = System.nanoTime();
+		synchronized (pages) {
+			Iterator<CachedPage> iterator = pages.values().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().expiresAt - now <= 0) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	public static final class CachedPage {
+		private final List<Integer> productIds;
+		private final String nextCursor;
+		private final long expiresAt;
+
+		private CachedPage(List<Integer> productIds, String nextCursor, long expiresAt) {
+			this.productIds = Collections.unmodifiableList(productIds);
+			this.nextCursor = nextCursor;
+			this.expiresAt = expiresAt;
+		}
+
+		public List<Integer> getProductIds() {
+			return productIds;
+		}
+
+		public String getNextCursor() {
+			return nextCursor;
+		}
+	}
+}
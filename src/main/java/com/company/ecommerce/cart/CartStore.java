@@ -0,0 +1,74 @@
+package com.company.ecommerce.cart;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.company.ecommerce.dto.cart.CartOperationDto;
+import com.company.ecommerce.dto.cart.CartSummaryDto;
+import com.company.ecommerce.exception.runtime.NotFoundException;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+
+/**
+ * Storage of cart lines behind CartService. Selected with
+ * ecommerce.cart.storage: "database" (the default) writes every change
+ * through to the cart table, "memory" keeps live carts in memory and writes
+ * them back in batches, see WriteBehindCartStore.
+ */
+public interface CartStore {
+
+	/**
+	 * Adds the quantity to the user's line for the product, creating the line if
+	 * there is none.
+	 */
+	Cart add(User user, Product product, int quantity);
+
+	/**
+	 * Returns the user's lines, most recently changed first. The list is a
+	 * consistent snapshot of the cart.
+	 */
+	List<Cart> findByUser(User user);
+
+	/**
+	 * Applies the operations in order as one change of the cart and returns the
+	 * resulting lines, most recently changed first. Operations must have been
+	 * validated and their products resolved into the map.
+	 */
+	List<Cart> apply(User user, List<CartOperationDto> operations, Map<Integer, Product> products);
+
+	Cart update(User user, int cartId, int quantity) throws NotFoundException;
+
+	void delete(User user, int cartId) throws NotFoundException;
+
+	/**
+	 * Removes the given lines, as read by findByUser, from the user's cart as
+	 * part of the current transaction. Used at checkout.
+	 */
+	void deleteLines(User user, List<Cart> lines);
+
+	/**
+	 * Removes every line of the user's cart.
+	 */
+	void clear(Integer userId);
+
+	/**
+	 * Deletes the carts of the given users whose lines were all last changed
+	 * before the cutoff and returns the number of lines deleted. Carts that were
+	 * changed since are left alone.
+	 */
+	int purgeIdle(List<Integer> userIds, Date cutoff);
+
+	/**
+	 * Returns the item count and subtotal of the user's cart without loading its
+	 * lines.
+	 */
+	CartSummaryDto getSummary(User user);
+
+	/**
+	 * Brings carts holding the product up to date with its new price. Called in
+	 * the transaction that updated the product.
+	 */
+	void productUpdated(Product product, double previousPrice);
+}
@@ -0,0 +1,326 @@
+package com.company.ecommerce.cart;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.company.ecommerce.dto.cart.CartOperationDto;
+import com.company.ecommerce.dto.cart.CartSummaryDto;
+import com.company.ecommerce.exception.runtime.NotFoundException;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.CartSummary;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.pricing.PriceCalculator;
+import com.company.ecommerce.repository.CartRepository;
+import com.company.ecommerce.repository.CartSummaryRepository;
+import com.company.ecommerce.repository.UserRepository;
+
+/**
+ * Cart store that writes every change straight to the cart table, together
+ * with the matching change of the user's cart_summary row.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.cart.storage", havingValue = "database", matchIfMissing = true)
+public class DatabaseCartStore implements CartStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseCartStore.class);
+
+	/**
+	 * Writes the summaries of the carts of the users in the id range. Prices
+	 * are converted to minor units as PriceCalculator does.
+	 */
+	private static final String INSERT_SUMMARIES_SQL = "insert into cart_summary (user_id, item_count, subtotal_minor) "
+			+ "select c.user_id, sum(c.quantity), sum(c.quantity * " + PriceCalculator.PRODUCT_PRICE_MINOR_UNITS_SQL
+			+ ") from cart c join products p on p.id = c.product_id where c.user_id between :fromId and :toId "
+			+ "group by c.user_id";
+
+	@Autowired
+	CartRepository repository;
+
+	@Autowired
+	CartSummaryRepository summaryRepository;
+
+	@Autowired
+	PriceCalculator priceCalculator;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Value("${ecommerce.cart.summary.rebuild-on-startup:false}")
+	boolean rebuildOnStartup;
+
+	@Value("${ecommerce.cart.summary.rebuild.chunk-size:1000}")
+	int rebuildChunkSize;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	void init() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * The line and the summary row change in one transaction. If a concurrent
+	 * change creates either row first, the unique key rejects the insert and the
+	 * whole transaction rolls back with a DataIntegrityViolationException;
+	 * CartService then runs the add again, which finds both rows and updates
+	 * them.
+	 */
+	@Override
+	@Transactional
+	public Cart add(User user, Product product, int quantity) {
+		if (repository.addQuantity(user.getId(), product.getId(), quantity, new Date()) == 0) {
+			repository.saveAndFlush(new Cart(product, quantity, user));
+		}
+		Cart cart = repository.findByUserAndProduct(user, product).get();
+		addToSummary(user.getId(), quantity, priceCalculator.lineTotal(cart.getProduct().getPrice(), quantity));
+		return cart;
+	}
+
+	@Override
+	public List<Cart> findByUser(User user) {
+		return repository.findAllByUserOrderByCreatedDateDesc(user);
+	}
+
+	/**
+	 * Loads the cart once, works out the resulting lines in memory and then
+	 * writes them together: new lines as one batched insert, changed lines as one
+	 * batched update and removed lines with one delete. A line that is removed
+	 * and added again within the batch is kept as it is, so no insert can collide
+	 * with its own delete on the unique (user, product) constraint. Changed lines
+	 * are version checked when flushed, before the summary row is touched. As in
+	 * add, a line or summary row created concurrently fails the transaction with
+	 * a DataIntegrityViolationException and CartService applies the batch again.
+	 */
+	@Override
+	@Transactional
+	public List<Cart> apply(User user, List<CartOperationDto> operations, Map<Integer, Product> products) {
+		Map<Integer, Cart> lines = new LinkedHashMap<>();
+		for (Cart cart : repository.findAllByUserId(user.getId())) {
+			lines.put(cart.getProduct().getId(), cart);
+		}
+		Map<Integer, Cart> removed = new HashMap<>();
+		List<Cart> created = new ArrayList<>();
+		long items = 0;
+		long amount = 0;
+		Date now = new Date();
+		for (CartOperationDto operation : operations) {
+			Integer productId = operation.getProductId();
+			Cart line = lines.get(productId);
+			int quantity = line == null ? 0 : line.getQuantity();
+			int newQuantity;
+			switch (operation.getOp()) {
+			case add:
+				newQuantity = quantity + operation.getQuantity();
+				break;
+			case set:
+				newQuantity = operation.getQuantity();
+				break;
+			default:
+				newQuantity = 0;
+			}
+			if (newQuantity == quantity) {
+				continue;
+			}
+			Product product = line == null ? products.get(productId) : line.getProduct();
+			items += newQuantity - quantity;
+			amount += priceCalculator.lineTotal(product.getPrice(), newQuantity - quantity);
+			if (newQuantity == 0) {
+				lines.remove(productId);
+				if (!created.remove(line)) {
+					removed.put(productId, line);
+				}
+			} else if (line == null) {
+				line = removed.remove(productId);
+				if (line == null) {
+					line = new Cart(product, newQuantity, user);
+					created.add(line);
+				}
+				line.setQuantity(newQuantity);
+				line.setCreatedDate(now);
+				lines.put(productId, line);
+			} else {
+				line.setQuantity(newQuantity);
+				line.setCreatedDate(now);
+			}
+		}
+		if (!removed.isEmpty()) {
+			repository.deleteAllInBatch(removed.values());
+		}
+		repository.saveAll(created);
+		repository.flush();
+		if (items != 0 || amount != 0) {
+			addToSummary(user.getId(), items, amount);
+		}
+		List<Cart> result = new ArrayList<>(lines.values());
+		result.sort(Comparator.comparing(Cart::getCreatedDate, Comparator.nullsLast(Comparator.reverseOrder())));
+		return result;
+	}
+
+	/**
+	 * Only lines of the given user are found, as in WriteBehindCartStore. The
+	 * line is flushed, and its version checked, before the summary row is
+	 * touched, so a conflicting update fails without waiting on that row.
+	 */
+	@Override
+	@Transactional
+	public Cart update(User user, int cartId, int quantity) throws NotFoundException {
+		Optional<Cart> cartOptional = repository.findByIdAndUserId(cartId, user.getId());
+		if (cartOptional.isPresent()) {
+			Cart cart = cartOptional.get();
+			int delta = quantity - cart.getQuantity();
+			cart.setQuantity(quantity);
+			cart.setCreatedDate(new Date());
+			Cart savedCart = repository.saveAndFlush(cart);
+			summaryRepository.addToSummary(user.getId(), delta,
+					priceCalculator.lineTotal(cart.getProduct().getPrice(), delta));
+			return savedCart;
+		} else {
+			throw new NotFoundException("Cart with id " + cartId + " not found.");
+		}
+	}
+
+	@Override
+	@Transactional
+	public void delete(User user, int cartId) throws NotFoundException {
+		Optional<Cart> cartOptional = repository.findByIdAndUserId(cartId, user.getId());
+		if (!cartOptional.isPresent())
+			throw new NotFoundException("Cart with id " + cartId + " not found.");
+		Cart cart = cartOptional.get();
+		repository.delete(cart);
+		repository.flush();
+		summaryRepository.addToSummary(user.getId(), -cart.getQuantity(),
+				-priceCalculator.lineTotal(cart.getProduct().getPrice(), cart.getQuantity()));
+	}
+
+	/**
+	 * The lines are removed as the entities they were loaded as, so each delete
+	 * checks the version read at checkout and a line changed in the meantime
+	 * fails the checkout instead of being dropped with its new quantity. As in
+	 * update, the deletes are flushed before the summary row is touched.
+	 */
+	@Override
+	public void deleteLines(User user, List<Cart> lines) {
+		long items = 0;
+		long amount = 0;
+		for (Cart cart : lines) {
+			items += cart.getQuantity();
+			amount += priceCalculator.lineTotal(cart.getProduct().getPrice(), cart.getQuantity());
+		}
+		if (!lines.isEmpty()) {
+			repository.deleteAll(lines);
+			repository.flush();
+			summaryRepository.addToSummary(user.getId(), -items, -amount);
+		}
+	}
+
+	@Override
+	@Transactional
+	public void clear(Integer userId) {
+		repository.deleteByUserId(userId);
+		summaryRepository.deleteEmptyByUserIds(Collections.singletonList(userId));
+	}
+
+	@Override
+	@Transactional
+	public int purgeIdle(List<Integer> userIds, Date cutoff) {
+		int deleted = repository.deleteIdleByUserIds(userIds, cutoff);
+		summaryRepository.deleteEmptyByUserIds(userIds);
+		return deleted;
+	}
+
+	/**
+	 * Adds to the user's summary row, inserting it if there is none yet.
+	 */
+	private void addToSummary(Integer userId, long items, long amount) {
+		if (summaryRepository.addToSummary(userId, items, amount) == 0) {
+			summaryRepository.saveAndFlush(new CartSummary(userId, items, amount));
+		}
+	}
+
+	@Override
+	public CartSummaryDto getSummary(User user) {
+		Optional<CartSummary> summaryOptional = summaryRepository.findById(user.getId());
+		if (!summaryOptional.isPresent()) {
+			return new CartSummaryDto(user.getId(), 0, 0);
+		}
+		CartSummary summary = summaryOptional.get();
+		return new CartSummaryDto(user.getId(), summary.getItemCount(),
+				priceCalculator.toMajorUnits(summary.getSubtotalMinor()));
+	}
+
+	@Override
+	public void productUpdated(Product product, double previousPrice) {
+		long delta = priceCalculator.toMinorUnits(product.getPrice()) - priceCalculator.toMinorUnits(previousPrice);
+		if (delta != 0) {
+			summaryRepository.applyPriceChange(product.getId(), delta);
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildSummariesOnStartup() {
+		if (rebuildOnStartup) {
+			rebuildSummaries();
+		}
+	}
+
+	/**
+	 * Rebuilds the summaries from the cart table, for carts that were changed
+	 * without going through the store. The user ids are split into ranges of
+	 * chunk-size ids and each range is replaced in its own transaction, so
+	 * summaries of other users stay in place while it runs. A cart change
+	 * racing the rebuild of its range waits for the range's row locks or fails
+	 * on the unique key and is run again by CartService.
+	 */
+	public void rebuildSummaries() {
+		long start = System.nanoTime();
+		Integer minId = userRepository.findMinId();
+		Integer maxId = userRepository.findMaxId();
+		long summaries = 0;
+		if (minId != null) {
+			for (long fromId = minId; fromId <= maxId; fromId += rebuildChunkSize) {
+				int from = (int) fromId;
+				int to = (int) Math.min(fromId + rebuildChunkSize - 1, maxId);
+				summaries += transactionTemplate.execute(status -> {
+					summaryRepository.deleteByUserIdBetween(from, to);
+					return jdbcTemplate.update(INSERT_SUMMARIES_SQL,
+							new MapSqlParameterSource().addValue("fromId", from).addValue("toId", to)
+									.addValue("factor", priceCalculator.getFactor())
+									.addValue("halfEven", priceCalculator.isHalfEven()));
+				});
+			}
+		}
+		LOGGER.info("Rebuilt {} cart summaries in {} ms", summaries,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+}
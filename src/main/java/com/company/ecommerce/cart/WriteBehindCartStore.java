@@ -0,0 +1,592 @@
+package com.company.ecommerce.cart;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.company.ecommerce.dto.cart.CartOperationDto;
+import com.company.ecommerce.dto.cart.CartSummaryDto;
+import com.company.ecommerce.enums.CartOperationType;
+import com.company.ecommerce.exception.runtime.NotFoundException;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.pricing.PriceCalculator;
+import com.company.ecommerce.repository.CartRepository;
+
+/**
+ * Cart store that keeps live carts in memory and writes them back to the cart
+ * table in batches.
+ * <p>
+ * Carts are held per user id in lock stripes, each an access ordered map, and
+ * are loaded from the database on first use. Once more than max-carts carts
+ * are held the least recently used one is dropped; if it still has unwritten
+ * changes it is parked until a flush has written them. Changes are written
+ * every flush-interval-ms and on shutdown, and a checkout deletes the checked
+ * out lines in the order's own transaction.
+ * <p>
+ * Crash semantics: a cart change is acknowledged before it is written, so a
+ * crash loses the cart changes of at most the last flush interval. Orders are
+ * never affected, and a committed checkout never leaves its lines behind in
+ * the cart table. Lower flush-interval-ms to narrow the window at the cost of
+ * more frequent writes. Carts are owned by the node holding them, so this mode
+ * needs users pinned to one node.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.cart.storage", havingValue = "memory")
+public class WriteBehindCartStore implements CartStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+	private static final int FLUSH_BATCH_SIZE = 500;
+
+	private static final String INSERT_SQL = "insert into cart (id, created_date, product_id, quantity, user_id, version) values (?, ?, ?, ?, ?, 0)";
+	private static final String UPDATE_SQL = "update cart set quantity = ?, created_date = ?, version = version + 1 where id = ?";
+	private static final String DELETE_SQL = "delete from cart where id = ?";
+
+	@Autowired
+	CartRepository repository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	PriceCalculator priceCalculator;
+
+	private final Stripe[] stripes;
+	private final int maxCartsPerStripe;
+	private final Map<Integer, UserCart> spilled = new ConcurrentHashMap<>();
+	private final Object flushLock = new Object();
+
+	private SessionFactoryImplementor sessionFactory;
+	private IdentifierGenerator idGenerator;
+
+	public WriteBehindCartStore(@Value("${ecommerce.cart.memory.max-carts:100000}") int maxCarts,
+			@Value("${ecommerce.cart.memory.stripes:64}") int stripeCount) {
+		this.stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe();
+		}
+		this.maxCartsPerStripe = Math.max(1, (maxCarts + stripeCount - 1) / stripeCount);
+	}
+
+	/**
+	 * Line ids come from Hibernate's own generator for Cart, so they never clash
+	 * with ids of lines saved through JPA.
+	 */
+	@PostConstruct
+	void initIdGenerator() {
+		sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		idGenerator = sessionFactory.getMetamodel().entityPersister(Cart.class).getIdentifierGenerator();
+	}
+
+	@Override
+	public Cart add(User user, Product product, int quantity) {
+		Stripe stripe = stripe(user.getId());
+		synchronized (stripe) {
+			UserCart cart = load(stripe, user.getId());
+			Cart line = cart.lines.get(product.getId());
+			if (line == null) {
+				line = cart.insert(newLine(product, quantity, user));
+			} else {
+				cart.setQuantity(line, line.getQuantity() + quantity);
+			}
+			return copy(line);
+		}
+	}
+
+	@Override
+	public List<Cart> findByUser(User user) {
+		Stripe stripe = stripe(user.getId());
+		synchronized (stripe) {
+			return copyLines(load(stripe, user.getId()));
+		}
+	}
+
+	@Override
+	public List<Cart> apply(User user, List<CartOperationDto> operations, Map<Integer, Product> products) {
+		Stripe stripe = stripe(user.getId());
+		synchronized (stripe) {
+			UserCart cart = load(stripe, user.getId());
+			for (CartOperationDto operation : operations) {
+				Cart line = cart.lines.get(operation.getProductId());
+				int quantity = operation.getOp() == CartOperationType.remove ? 0 : operation.getQuantity();
+				if (operation.getOp() == CartOperationType.add && line != null) {
+					cart.setQuantity(line, line.getQuantity() + quantity);
+				} else if (quantity == 0) {
+					if (line != null) {
+						cart.remove(line);
+					}
+				} else if (line == null) {
+					cart.insert(newLine(products.get(operation.getProductId()), quantity, user));
+				} else {
+					cart.setQuantity(line, quantity);
+				}
+			}
+			return copyLines(cart);
+		}
+	}
+
+	@Override
+	public Cart update(User user, int cartId, int quantity) throws NotFoundException {
+		Stripe stripe = stripe(user.getId());
+		synchronized (stripe) {
+			UserCart cart = load(stripe, user.getId());
+			Cart line = cart.find(cartId);
+			cart.setQuantity(line, quantity);
+			return copy(line);
+		}
+	}
+
+	@Override
+	public void delete(User user, int cartId) throws NotFoundException {
+		Stripe stripe = stripe(user.getId());
+		synchronized (stripe) {
+			UserCart cart = load(stripe, user.getId());
+			cart.remove(cart.find(cartId));
+		}
+	}
+
+	/**
+	 * Deletes the rows of the lines in the current transaction and takes the
+	 * lines out of the in-memory cart once it commits. Quantity added to a line
+	 * while the checkout ran stays in the cart as a new line.
+	 */
+	@Override
+	public void deleteLines(User user, List<Cart> lines) {
+		List<Object[]> ids = new ArrayList<>(lines.size());
+		for (Cart line : lines) {
+			ids.add(new Object[] { line.getId() });
+		}
+		jdbcTemplate.batchUpdate(DELETE_SQL, ids);
+		afterCommit(() -> {
+			Stripe stripe = stripe(user.getId());
+			synchronized (stripe) {
+				UserCart cart = load(stripe, user.getId());
+				for (Cart checkedOut : lines) {
+					Cart line = cart.lines.get(checkedOut.getProduct().getId());
+					if (line == null || !line.getId().equals(checkedOut.getId())) {
+						continue;
+					}
+					cart.remove(line);
+					int remaining = line.getQuantity() - checkedOut.getQuantity();
+					if (remaining > 0) {
+						cart.insert(newLine(line.getProduct(), remaining, line.getUser()));
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * A held cart is emptied in memory and deleted with the next flush, any other
+	 * cart is deleted right away.
+	 */
+	@Override
+	public void clear(Integer userId) {
+		Stripe stripe = stripe(userId);
+		synchronized (stripe) {
+			if (stripe.carts.containsKey(userId) || spilled.containsKey(userId)) {
+				UserCart cart = load(stripe, userId);
+				for (Cart line : new ArrayList<>(cart.lines.values())) {
+					cart.remove(line);
+				}
+			} else {
+				repository.deleteByUserId(userId);
+			}
+		}
+	}
+
+	/**
+	 * Held carts are in use and skipped, their rows may not be current anyway.
+	 * The rest are deleted one stripe at a time while holding the stripe, so none
+	 * of them can be loaded halfway through.
+	 */
+	@Override
+	public int purgeIdle(List<Integer> userIds, Date cutoff) {
+		Map<Stripe, List<Integer>> userIdsByStripe = new LinkedHashMap<>();
+		for (Integer userId : userIds) {
+			userIdsByStripe.computeIfAbsent(stripe(userId), stripe -> new ArrayList<>()).add(userId);
+		}
+		int deleted = 0;
+		for (Map.Entry<Stripe, List<Integer>> entry : userIdsByStripe.entrySet()) {
+			Stripe stripe = entry.getKey();
+			synchronized (stripe) {
+				List<Integer> idleUserIds = new ArrayList<>();
+				for (Integer userId : entry.getValue()) {
+					if (!stripe.carts.containsKey(userId) && !spilled.containsKey(userId)) {
+						idleUserIds.add(userId);
+					}
+				}
+				if (!idleUserIds.isEmpty()) {
+					deleted += repository.deleteIdleByUserIds(idleUserIds, cutoff);
+				}
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * Summaries are counted along with the lines, so this only loads the cart if
+	 * it is not held.
+	 */
+	@Override
+	public CartSummaryDto getSummary(User user) {
+		Stripe stripe = stripe(user.getId());
+		synchronized (stripe) {
+			UserCart cart = load(stripe, user.getId());
+			return new CartSummaryDto(user.getId(), cart.itemCount, priceCalculator.toMajorUnits(cart.subtotalMinor));
+		}
+	}
+
+	/**
+	 * Swaps the updated product into the held carts once the update commits.
+	 * Carts not held pick it up when they are loaded.
+	 */
+	@Override
+	public void productUpdated(Product product, double previousPrice) {
+		afterCommit(() -> {
+			for (Stripe stripe : stripes) {
+				synchronized (stripe) {
+					for (UserCart cart : stripe.carts.values()) {
+						cart.productUpdated(product);
+					}
+				}
+			}
+			for (UserCart cart : spilled.values()) {
+				synchronized (stripe(cart.userId)) {
+					cart.productUpdated(product);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes all pending cart changes, in transactions of up to FLUSH_BATCH_SIZE
+	 * carts. Changes of a batch that fails are kept and retried on the next
+	 * flush.
+	 */
+	@Scheduled(fixedDelayString = "${ecommerce.cart.memory.flush-interval-ms:5000}")
+	public void flush() {
+		synchronized (flushLock) {
+			List<PendingWrites> batch = new ArrayList<>();
+			for (Stripe stripe : stripes) {
+				synchronized (stripe) {
+					for (UserCart cart : stripe.carts.values()) {
+						if (cart.hasPendingWrites() && cart.flushing == 0) {
+							batch.add(cart.takePendingWrites());
+						}
+					}
+				}
+				if (batch.size() >= FLUSH_BATCH_SIZE) {
+					write(batch);
+					batch = new ArrayList<>();
+				}
+			}
+			for (UserCart cart : spilled.values()) {
+				synchronized (stripe(cart.userId)) {
+					if (cart.hasPendingWrites() && cart.flushing == 0) {
+						batch.add(cart.takePendingWrites());
+					}
+				}
+				if (batch.size() >= FLUSH_BATCH_SIZE) {
+					write(batch);
+					batch = new ArrayList<>();
+				}
+			}
+			write(batch);
+		}
+	}
+
+	@PreDestroy
+	void flushOnShutdown() {
+		flush();
+	}
+
+	/**
+	 * Deletes go first so a line removed and added again for the same product
+	 * does not trip the unique (user, product) constraint.
+	 */
+	private void write(List<PendingWrites> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		List<Object[]> deletes = new ArrayList<>();
+		List<Object[]> inserts = new ArrayList<>();
+		List<Object[]> updates = new ArrayList<>();
+		for (PendingWrites pending : batch) {
+			deletes.addAll(pending.deletes);
+			inserts.addAll(pending.inserts);
+			updates.addAll(pending.updates);
+		}
+		boolean written = false;
+		try {
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+				jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+				jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+				jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+			});
+			written = true;
+		} catch (RuntimeException e) {
+			LOGGER.warn("Writing {} carts failed, will retry on the next flush", batch.size(), e);
+		}
+		for (PendingWrites pending : batch) {
+			UserCart cart = pending.cart;
+			synchronized (stripe(cart.userId)) {
+				cart.flushing--;
+				if (!written) {
+					cart.restore(pending);
+				} else if (!cart.hasPendingWrites()) {
+					spilled.remove(cart.userId, cart);
+				}
+			}
+		}
+	}
+
+	private Stripe stripe(Integer userId) {
+		return stripes[Math.floorMod(userId.hashCode(), stripes.length)];
+	}
+
+	/**
+	 * Returns the user's cart, taking it back from the parked carts or loading it
+	 * from the database if it is not held. Must be called holding the stripe.
+	 */
+	private UserCart load(Stripe stripe, Integer userId) {
+		UserCart cart = stripe.carts.get(userId);
+		if (cart == null) {
+			cart = spilled.remove(userId);
+			if (cart == null) {
+				cart = new UserCart(userId);
+				for (Cart line : repository.findAllByUserId(userId)) {
+					cart.put(copy(line));
+				}
+			}
+			stripe.carts.put(userId, cart);
+		}
+		return cart;
+	}
+
+	private Cart newLine(Product product, int quantity, User user) {
+		Cart line = new Cart(product, quantity, user);
+		try (StatelessSession session = sessionFactory.openStatelessSession()) {
+			line.setId((Integer) idGenerator.generate((SharedSessionContractImplementor) session, line));
+		}
+		return line;
+	}
+
+	private static List<Cart> copyLines(UserCart cart) {
+		List<Cart> lines = new ArrayList<>(cart.lines.size());
+		for (Cart line : cart.lines.values()) {
+			lines.add(copy(line));
+		}
+		lines.sort(Comparator.comparing(Cart::getCreatedDate, Comparator.nullsLast(Comparator.reverseOrder())));
+		return lines;
+	}
+
+	/**
+	 * Lines handed out are copies, so callers never see a line change under them
+	 * and loaded entities are never attached to a persistence context.
+	 */
+	private static Cart copy(Cart line) {
+		Cart copy = new Cart(line.getProduct(), line.getQuantity(), line.getUser());
+		copy.setId(line.getId());
+		copy.setCreatedDate(line.getCreatedDate());
+		return copy;
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private final class Stripe {
+
+		final LinkedHashMap<Integer, UserCart> carts = new LinkedHashMap<Integer, UserCart>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, UserCart> eldest) {
+				if (size() <= maxCartsPerStripe) {
+					return false;
+				}
+				UserCart cart = eldest.getValue();
+				if (cart.hasPendingWrites() || cart.flushing > 0) {
+					spilled.put(cart.userId, cart);
+				}
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * A user's lines by product id and the ids of lines with unwritten changes.
+	 * Guarded by the user's stripe.
+	 */
+	private final class UserCart {
+
+		final Integer userId;
+		final Map<Integer, Cart> lines = new LinkedHashMap<>();
+		final Set<Integer> unsaved = new HashSet<>();
+		final Set<Integer> changed = new HashSet<>();
+		final Set<Integer> removed = new HashSet<>();
+		long itemCount;
+		long subtotalMinor;
+		int flushing;
+
+		UserCart(Integer userId) {
+			this.userId = userId;
+		}
+
+		Cart find(int cartId) {
+			for (Cart line : lines.values()) {
+				if (line.getId() == cartId) {
+					return line;
+				}
+			}
+			throw new NotFoundException("Cart with id " + cartId + " not found.");
+		}
+
+		void put(Cart line) {
+			lines.put(line.getProduct().getId(), line);
+			itemCount += line.getQuantity();
+			subtotalMinor += priceCalculator.lineTotal(line.getProduct().getPrice(), line.getQuantity());
+		}
+
+		Cart insert(Cart line) {
+			put(line);
+			unsaved.add(line.getId());
+			return line;
+		}
+
+		void setQuantity(Cart line, int quantity) {
+			int delta = quantity - line.getQuantity();
+			itemCount += delta;
+			subtotalMinor += priceCalculator.lineTotal(line.getProduct().getPrice(), delta);
+			line.setQuantity(quantity);
+			line.setCreatedDate(new Date());
+			if (!unsaved.contains(line.getId())) {
+				changed.add(line.getId());
+			}
+		}
+
+		void productUpdated(Product product) {
+			Cart line = lines.get(product.getId());
+			if (line != null) {
+				subtotalMinor += priceCalculator.lineTotal(product.getPrice(), line.getQuantity())
+						- priceCalculator.lineTotal(line.getProduct().getPrice(), line.getQuantity());
+				line.setProduct(product);
+			}
+		}
+
+		void remove(Cart line) {
+			lines.remove(line.getProduct().getId());
+			itemCount -= line.getQuantity();
+			subtotalMinor -= priceCalculator.lineTotal(line.getProduct().getPrice(), line.getQuantity());
+			if (!unsaved.remove(line.getId())) {
+				changed.remove(line.getId());
+				removed.add(line.getId());
+			}
+		}
+
+		boolean hasPendingWrites() {
+			return !unsaved.isEmpty() || !changed.isEmpty() || !removed.isEmpty();
+		}
+
+		PendingWrites takePendingWrites() {
+			PendingWrites pending = new PendingWrites(this);
+			for (Cart line : lines.values()) {
+				if (unsaved.contains(line.getId())) {
+					pending.insertedIds.add(line.getId());
+					pending.inserts.add(new Object[] { line.getId(), line.getCreatedDate(),
+							line.getProduct().getId(), line.getQuantity(), userId });
+				} else if (changed.contains(line.getId())) {
+					pending.updates.add(new Object[] { line.getQuantity(), line.getCreatedDate(), line.getId() });
+				}
+			}
+			for (Integer id : removed) {
+				pending.deletes.add(new Object[] { id });
+			}
+			pending.updatedIds.addAll(changed);
+			pending.deletedIds.addAll(removed);
+			unsaved.clear();
+			changed.clear();
+			removed.clear();
+			flushing++;
+			return pending;
+		}
+
+		/**
+		 * Puts back the changes of a failed write, on top of whatever changed since.
+		 */
+		void restore(PendingWrites pending) {
+			for (Integer id : pending.insertedIds) {
+				if (!removed.remove(id)) {
+					changed.remove(id);
+					unsaved.add(id);
+				}
+			}
+			for (Integer id : pending.updatedIds) {
+				if (!removed.contains(id)) {
+					changed.add(id);
+				}
+			}
+			removed.addAll(pending.deletedIds);
+		}
+	}
+
+	private static final class PendingWrites {
+
+		final UserCart cart;
+		final List<Object[]> inserts = new ArrayList<>();
+		final List<Object[]> updates = new ArrayList<>();
+		final List<Object[]> deletes = new ArrayList<>();
+		final List<Integer> insertedIds = new ArrayList<>();
+		final List<Integer> updatedIds = new ArrayList<>();
+		final List<Integer> deletedIds = new ArrayList<>();
+
+		PendingWrites(UserCart cart) {
+			this.cart = cart;
+		}
+	}
+}
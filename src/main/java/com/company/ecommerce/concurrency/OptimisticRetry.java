@@ -0,0 +1,123 @@
+package com.company.ecommerce.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.OptimisticLockException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.company.ecommerce.dto.concurrency.OptimisticRetryStatsDto;
+
+/**
+ * Runs an operation in its own transaction and, when the transaction fails a
+ * version check of an optimistically locked entity, runs it again after a
+ * randomized backoff. A failed attempt is rolled back as a whole, so this is
+ * safe for any operation whose effects stay inside the transaction. When a
+ * transaction is already active the operation joins it and is not retried,
+ * since only the outer transaction can be rolled back and started again.
+ */
+@Component
+public class OptimisticRetry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OptimisticRetry.class);
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${ecommerce.retry.optimistic.max-attempts:5}")
+	int maxAttempts;
+
+	@Value("${ecommerce.retry.optimistic.initial-backoff-ms:10}")
+	long initialBackoffMillis;
+
+	@Value("${ecommerce.retry.optimistic.max-backoff-ms:200}")
+	long maxBackoffMillis;
+
+	private TransactionTemplate transactionTemplate;
+
+	private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void init() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	public <T> T execute(String operation, Supplier<T> action) {
+		Counters operationCounters = counters.computeIfAbsent(operation, name -> new Counters());
+		operationCounters.executions.increment();
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return action.get();
+		}
+		for (int attempt = 1;; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> action.get());
+			} catch (OptimisticLockingFailureException | OptimisticLockException e) {
+				operationCounters.conflicts.increment();
+				if (attempt >= maxAttempts || !backOff(attempt)) {
+					operationCounters.failures.increment();
+					LOGGER.warn("{} still conflicting after {} attempts", operation, attempt);
+					throw e;
+				}
+				operationCounters.retries.increment();
+			}
+		}
+	}
+
+	public void executeWithoutResult(String operation, Runnable action) {
+		execute(operation, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	public List<OptimisticRetryStatsDto> getStats() {
+		List<OptimisticRetryStatsDto> stats = new ArrayList<>();
+		for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+			Counters operationCounters = entry.getValue();
+			stats.add(new OptimisticRetryStatsDto(entry.getKey(), operationCounters.executions.sum(),
+					operationCounters.conflicts.sum(), operationCounters.retries.sum(),
+					operationCounters.failures.sum()));
+		}
+		stats.sort((a, b) -> a.getOperation().compareTo(b.getOperation()));
+		return stats;
+	}
+
+	/**
+	 * Sleeps between half and all of an exponentially growing delay, so callers
+	 * that collided once do not collide again in lockstep. Returns false if
+	 * interrupted.
+	 */
+	private boolean backOff(int attempt) {
+		long delay = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+		try {
+			Thread.sleep(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static class Counters {
+		final LongAdder executions = new LongAdder();
+		final LongAdder conflicts = new LongAdder();
+		final LongAdder retries = new LongAdder();
+		final LongAdder failures = new LongAdder();
+	}
+}
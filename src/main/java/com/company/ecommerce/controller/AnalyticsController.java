@@ -0,0 +1,72 @@
+package com.company.ecommerce.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.company.ecommerce.dto.analytics.SalesBackfillDto;
+import com.company.ecommerce.dto.analytics.SalesReportDto;
+import com.company.ecommerce.enums.SalesGroupBy;
+import com.company.ecommerce.service.SalesRollupService;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+@RestController
+@Api(value = "AnalyticsController", description = "Operations pertaining to sales analytics in e-commerce application")
+public class AnalyticsController {
+
+	@Autowired
+	SalesRollupService salesRollupService;
+
+	/**
+	 * Method used to get the units sold and revenue between two days, both
+	 * included, per product, category or day
+	 * 
+	 * @param from    as LocalDate
+	 * @param to      as LocalDate
+	 * @param groupBy as SalesGroupBy
+	 * @return ResponseEntity<SalesReportDto>
+	 */
+	@ApiOperation(value = "Retrieve units sold and revenue per product, category or day", response = SalesReportDto.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved"),
+			@ApiResponse(code = 400, message = "Invalid date range"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@GetMapping("/analytics/sales")
+	public ResponseEntity<SalesReportDto> getSales(
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(value = "groupBy", defaultValue = "product") SalesGroupBy groupBy) {
+		return new ResponseEntity<>(salesRollupService.getSales(from, to, groupBy), HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to rebuild the sales rollups of the days between two days,
+	 * both included, from the orders
+	 * 
+	 * @param from as LocalDate
+	 * @param to   as LocalDate
+	 * @return ResponseEntity<SalesBackfillDto>
+	 */
+	@ApiOperation(value = "Rebuild the sales rollups of a date range from the orders", response = SalesBackfillDto.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully rebuilt"),
+			@ApiResponse(code = 400, message = "Invalid date range"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@PostMapping("/analytics/sales/backfill")
+	public ResponseEntity<SalesBackfillDto> backfillSales(
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return new ResponseEntity<>(salesRollupService.backfill(from, to), HttpStatus.OK);
+	}
+}
@@ -1,5 +1,8 @@
 package com.company.ecommerce.controller;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.validation.Valid;
@@ -9,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -18,10 +22,14 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.company.ecommerce.dto.cart.AddToCartDto;
 import com.company.ecommerce.dto.cart.CartDto;
+import com.company.ecommerce.dto.cart.CartOperationDto;
+import com.company.ecommerce.dto.cart.CartPurgeStatsDto;
+import com.company.ecommerce.dto.cart.CartSummaryDto;
 import com.company.ecommerce.exception.runtime.NotFoundException;
 import com.company.ecommerce.model.Cart;
 import com.company.ecommerce.model.Product;
 import com.company.ecommerce.model.User;
+import com.company.ecommerce.service.CartPurgeService;
 import com.company.ecommerce.service.CartService;
 import com.company.ecommerce.service.ProductService;
 import com.company.ecommerce.service.UserService;
@@ -38,6 +46,9 @@ public class CartController {
 	@Autowired
 	CartService cartService;
 
+	@Autowired
+	CartPurgeService cartPurgeService;
+
 	@Autowired
 	ProductService productService;
 
@@ -72,6 +83,36 @@ public class CartController {
 		return new ResponseEntity<>(savedCart, HttpStatus.CREATED);
 	}
 
+	/**
+	 * Method used to apply a batch of add, set and remove operations to the cart
+	 * of given userId in one go
+	 * 
+	 * @param operations as List<CartOperationDto>
+	 * @param userId     as Integer
+	 * @return ResponseEntity<CartDto>
+	 * @throws NotFoundException
+	 */
+	@ApiOperation(value = "Apply a batch of add, set and remove operations to the cart of given userId")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully updated"),
+			@ApiResponse(code = 400, message = "An operation is invalid"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
+	@PatchMapping("/carts")
+	public ResponseEntity<CartDto> applyCartOperations(@RequestBody List<CartOperationDto> operations,
+			@RequestParam("userId") Integer userId) throws NotFoundException {
+		Optional<User> userOptional = userService.findById(userId);
+		if (!userOptional.isPresent()) {
+			throw new NotFoundException("User with id " + userId + " not found.");
+		}
+		Map<Integer, Product> products = new HashMap<>();
+		for (Product product : productService.getProductsByIds(cartService.getProductIds(operations))) {
+			products.put(product.getId(), product);
+		}
+		CartDto cartDto = cartService.applyCartOperations(userOptional.get(), operations, products);
+		return new ResponseEntity<>(cartDto, HttpStatus.OK);
+	}
+
 	/**
 	 * Method used to get cart details for given userId
 	 * 
@@ -93,6 +134,41 @@ public class CartController {
 		return new ResponseEntity<CartDto>(cartDto, HttpStatus.OK);
 	}
 
+	/**
+	 * Method used to get the item count and subtotal of the cart for given userId
+	 * 
+	 * @param userId as Integer
+	 * @return ResponseEntity<CartSummaryDto>
+	 */
+	@ApiOperation(value = "Get cart item count and subtotal for given userId")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
+	@GetMapping("/carts/summary")
+	public ResponseEntity<CartSummaryDto> getCartSummary(@RequestParam("userId") Integer userId) {
+		Optional<User> userOptional = userService.findById(userId);
+		if (!userOptional.isPresent()) {
+			throw new NotFoundException("User with id " + userId + " not found.");
+		}
+		CartSummaryDto cartSummaryDto = cartService.getCartSummary(userOptional.get());
+		return new ResponseEntity<>(cartSummaryDto, HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to get statistics of the abandoned cart purge
+	 * 
+	 * @return ResponseEntity<CartPurgeStatsDto>
+	 */
+	@ApiOperation(value = "Get statistics of the abandoned cart purge")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@GetMapping("/carts/purge/stats")
+	public ResponseEntity<CartPurgeStatsDto> getPurgeStats() {
+		return new ResponseEntity<>(cartPurgeService.getStats(), HttpStatus.OK);
+	}
+
 	/**
 	 * Method used to update cart for given userId
 	 * 
@@ -141,7 +217,7 @@ public class CartController {
 		if (!userOptional.isPresent()) {
 			throw new NotFoundException("User with id " + userId + " not found.");
 		}
-		cartService.deleteCartItem(itemID, userId);
+		cartService.deleteCartItem(itemID, userOptional.get());
 		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 	}
 }
@@ -5,6 +5,8 @@ import java.util.List;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,12 +14,21 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.company.ecommerce.cache.CatalogVersion;
+import com.company.ecommerce.dto.category.CategorySummaryDto;
+import com.company.ecommerce.dto.category.PriceFacetDto;
+import com.company.ecommerce.dto.product.ProductPageDto;
+import com.company.ecommerce.enums.ProductSort;
 import com.company.ecommerce.exception.runtime.DuplicateFoundException;
 import com.company.ecommerce.exception.runtime.NotFoundException;
 import com.company.ecommerce.model.Category;
 import com.company.ecommerce.service.CategoryService;
+import com.company.ecommerce.service.FacetService;
+import com.company.ecommerce.service.ProductService;
 import com.company.ecommerce.util.CommonUtil;
 
 import io.swagger.annotations.Api;
@@ -32,24 +43,139 @@ public class CategoryController {
 	@Autowired
 	CategoryService categoryService;
 
+	@Autowired
+	ProductService productService;
+
+	@Autowired
+	FacetService facetService;
+
+	@Autowired
+	CatalogVersion catalogVersion;
+
+	@Value("${ecommerce.http.categories.max-age-seconds:300}")
+	long maxAgeSeconds;
+
+	@Value("${ecommerce.http.products.max-age-seconds:30}")
+	long productsMaxAgeSeconds;
+
 	/**
 	 * Method used to retrieve list of available categories
 	 * 
+	 * @param request as WebRequest
 	 * @return ResponseEntity<List<Category>>
 	 */
 	@ApiOperation(value = "Retrieve list of available categories", response = Iterable.class)
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved list"),
 			@ApiResponse(code = 204, message = "Successfully retrieved list but list is empty"),
+			@ApiResponse(code = 304, message = "Catalog not modified since given ETag"),
 			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
 			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
 			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
 	@GetMapping("/categories")
-	public ResponseEntity<List<Category>> getCategories() {
+	public ResponseEntity<List<Category>> getCategories(WebRequest request) {
+		String eTag = catalogVersion.getETag();
+		HttpHeaders headers = CommonUtil.cacheHeaders(eTag, maxAgeSeconds);
+		if (request.checkNotModified(eTag)) {
+			return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+		}
 		List<Category> categories = categoryService.listCategories();
 		if (categories.isEmpty()) {
-			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+			return new ResponseEntity<>(headers, HttpStatus.NO_CONTENT);
+		}
+		return new ResponseEntity<>(categories, headers, HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to retrieve name, image and product count of available
+	 * categories, e.g. for the navigation menu
+	 * 
+	 * @param request as WebRequest
+	 * @return ResponseEntity<List<CategorySummaryDto>>
+	 */
+	@ApiOperation(value = "Retrieve summaries of available categories", response = Iterable.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 204, message = "Successfully retrieved list but list is empty"),
+			@ApiResponse(code = 304, message = "Catalog not modified since given ETag"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@GetMapping("/categories/summary")
+	public ResponseEntity<List<CategorySummaryDto>> getCategorySummaries(WebRequest request) {
+		String eTag = catalogVersion.getETag();
+		HttpHeaders headers = CommonUtil.cacheHeaders(eTag, maxAgeSeconds);
+		if (request.checkNotModified(eTag)) {
+			return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+		}
+		List<CategorySummaryDto> categories = categoryService.listCategorySummaries();
+		if (categories.isEmpty()) {
+			return new ResponseEntity<>(headers, HttpStatus.NO_CONTENT);
+		}
+		return new ResponseEntity<>(categories, headers, HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to retrieve a page of products of given category. The next
+	 * page is requested by passing the returned nextCursor as after.
+	 * 
+	 * @param categoryID as Integer
+	 * @param limit      as int
+	 * @param after      as String
+	 * @param sort       as ProductSort
+	 * @param page       as Integer
+	 * @param request    as WebRequest
+	 * @return ResponseEntity<ProductPageDto>
+	 */
+	@ApiOperation(value = "Retrieve a page of products of given category", response = ProductPageDto.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 204, message = "Successfully retrieved list but list is empty"),
+			@ApiResponse(code = 304, message = "Catalog not modified since given ETag"),
+			@ApiResponse(code = 400, message = "Invalid paging parameters"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
+	@GetMapping("/categories/{categoryID}/products")
+	public ResponseEntity<ProductPageDto> getCategoryProducts(@PathVariable("categoryID") Integer categoryID,
+			@RequestParam(value = "limit", defaultValue = "50") int limit,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "sort", defaultValue = "id") ProductSort sort,
+			@RequestParam(value = "page", required = false) Integer page, WebRequest request) {
+		String eTag = catalogVersion.getETag();
+		HttpHeaders headers = CommonUtil.cacheHeaders(eTag, productsMaxAgeSeconds);
+		if (request.checkNotModified(eTag)) {
+			return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+		}
+		if (!categoryService.findById(categoryID).isPresent()) {
+			throw new NotFoundException("Category with id " + categoryID + " not found.");
+		}
+		ProductPageDto productPage = productService.listProducts(limit, after, sort, page, categoryID);
+		if (productPage.getProducts().isEmpty()) {
+			return new ResponseEntity<>(headers, HttpStatus.NO_CONTENT);
+		}
+		return new ResponseEntity<>(productPage, headers, HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to retrieve price facets (count, min, max and histogram) of
+	 * products of given category
+	 * 
+	 * @param categoryID as Integer
+	 * @param request    as WebRequest
+	 * @return ResponseEntity<PriceFacetDto>
+	 */
+	@ApiOperation(value = "Retrieve price facets of given category", response = PriceFacetDto.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved"),
+			@ApiResponse(code = 304, message = "Catalog not modified since given ETag"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
+	@GetMapping("/categories/{categoryID}/facets")
+	public ResponseEntity<PriceFacetDto> getCategoryFacets(@PathVariable("categoryID") Integer categoryID,
+			WebRequest request) {
+		String eTag = catalogVersion.getETag();
+		HttpHeaders headers = CommonUtil.cacheHeaders(eTag, productsMaxAgeSeconds);
+		if (request.checkNotModified(eTag)) {
+			return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
 		}
-		return new ResponseEntity<>(categories, HttpStatus.OK);
+		return new ResponseEntity<>(facetService.getPriceFacets(categoryID), headers, HttpStatus.OK);
 	}
 
 	/**
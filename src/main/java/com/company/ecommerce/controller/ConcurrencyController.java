@@ -0,0 +1,39 @@
+package com.company.ecommerce.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.company.ecommerce.concurrency.OptimisticRetry;
+import com.company.ecommerce.dto.concurrency.OptimisticRetryStatsDto;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+@RestController
+@Api(value = "ConcurrencyController", description = "Operations pertaining to write contention in e-commerce application")
+public class ConcurrencyController {
+
+	@Autowired
+	OptimisticRetry optimisticRetry;
+
+	/**
+	 * Method used to get the optimistic lock conflicts and retries per operation
+	 * 
+	 * @return ResponseEntity<List<OptimisticRetryStatsDto>>
+	 */
+	@ApiOperation(value = "Get optimistic lock conflicts and retries per operation", response = Iterable.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@GetMapping("/concurrency/stats")
+	public ResponseEntity<List<OptimisticRetryStatsDto>> getOptimisticRetryStats() {
+		return new ResponseEntity<>(optimisticRetry.getStats(), HttpStatus.OK);
+	}
+}
@@ -1,9 +1,9 @@
 package com.company.ecommerce.controller;
 
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,11 +11,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.company.ecommerce.dto.order.OrderPageDto;
+import com.company.ecommerce.dto.order.OrderStatusDto;
+import com.company.ecommerce.dto.order.OrderSummaryPageDto;
+import com.company.ecommerce.dto.order.OrderSummaryRebuildDto;
 import com.company.ecommerce.exception.runtime.NotFoundException;
 import com.company.ecommerce.model.Order;
 import com.company.ecommerce.model.User;
+import com.company.ecommerce.service.OrderPlacementService;
 import com.company.ecommerce.service.OrderService;
+import com.company.ecommerce.service.OrderSummaryService;
 import com.company.ecommerce.service.UserService;
 
 import io.swagger.annotations.Api;
@@ -30,51 +37,115 @@ public class OrderController {
 	@Autowired
 	OrderService orderService;
 
+	@Autowired
+	OrderPlacementService orderPlacementService;
+
+	@Autowired
+	OrderSummaryService orderSummaryService;
+
 	@Autowired
 	UserService userService;
 
 	/**
-	 * Method used to place order for given userId.
+	 * Method used to place order for given userId. With asynchronous placement
+	 * enabled, the order is accepted as pending and placed in the background;
+	 * its status is found at the returned location.
 	 * 
 	 * @param userId as Integer
-	 * @return ResponseEntity<HttpStatus>
+	 * @return ResponseEntity<OrderStatusDto>
 	 * @throws NotFoundException
 	 */
 	@ApiOperation(value = "Place order for given userId")
 	@ApiResponses(value = { @ApiResponse(code = 201, message = "Successfully created"),
+			@ApiResponse(code = 202, message = "Accepted, the order is placed in the background"),
 			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
 			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
-			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 409, message = "A product in the cart is out of stock"),
+			@ApiResponse(code = 429, message = "Too many orders are being placed, retry later") })
 	@PostMapping("/orders")
-	public ResponseEntity<HttpStatus> placeOrder(@RequestParam("userId") Integer userId) throws NotFoundException {
+	public ResponseEntity<OrderStatusDto> placeOrder(@RequestParam("userId") Integer userId)
+			throws NotFoundException {
 		Optional<User> userOptional = userService.findById(userId);
 		if (!userOptional.isPresent()) {
 			throw new NotFoundException("User with id " + userId + " not found.");
 		}
+		if (orderPlacementService.isEnabled()) {
+			Order order = orderPlacementService.submit(userOptional.get());
+			HttpHeaders headers = new HttpHeaders();
+			headers.setLocation(ServletUriComponentsBuilder.fromCurrentContextPath().path("/orders/{id}/status")
+					.queryParam("userId", userId).buildAndExpand(order.getId()).toUri());
+			return new ResponseEntity<>(new OrderStatusDto(order), headers, HttpStatus.ACCEPTED);
+		}
 		orderService.placeOrder(userOptional.get());
 		return new ResponseEntity<>(HttpStatus.CREATED);
 	}
 
 	/**
-	 * Method used to get all the orders for given userId
+	 * Method used to get a page of the orders for given userId, newest first.
+	 * The next page is requested by passing the returned nextCursor as after.
 	 * 
 	 * @param userId as Integer
-	 * @return ResponseEntity<List<Order>>
+	 * @param limit  as int
+	 * @param after  as String
+	 * @return ResponseEntity<OrderPageDto>
 	 */
-	@ApiOperation(value = "Retrieve list of available orders for given userId", response = Iterable.class)
+	@ApiOperation(value = "Retrieve a page of orders for given userId", response = OrderPageDto.class)
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved list"),
-			@ApiResponse(code = 204, message = "Successfully retrieved list but list is empty"),
+			@ApiResponse(code = 400, message = "Invalid paging parameters"),
 			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
 			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
 			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
 	@GetMapping("/orders")
-	public ResponseEntity<List<Order>> getAllOrders(@RequestParam("userId") Integer userId) {
+	public ResponseEntity<OrderPageDto> getAllOrders(@RequestParam("userId") Integer userId,
+			@RequestParam(value = "limit", defaultValue = "20") int limit,
+			@RequestParam(value = "after", required = false) String after) {
+		Optional<User> userOptional = userService.findById(userId);
+		if (!userOptional.isPresent()) {
+			throw new NotFoundException("User with id " + userId + " not found.");
+		}
+		return new ResponseEntity<>(orderService.listOrders(userOptional.get(), limit, after), HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to get a page of the summaries of the orders placed by given
+	 * userId, newest first. The next page is requested by passing the returned
+	 * nextCursor as after.
+	 * 
+	 * @param userId as Integer
+	 * @param limit  as int
+	 * @param after  as String
+	 * @return ResponseEntity<OrderSummaryPageDto>
+	 */
+	@ApiOperation(value = "Retrieve a page of order summaries for given userId", response = OrderSummaryPageDto.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 400, message = "Invalid paging parameters"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
+	@GetMapping("/orders/summary")
+	public ResponseEntity<OrderSummaryPageDto> getOrderSummaries(@RequestParam("userId") Integer userId,
+			@RequestParam(value = "limit", defaultValue = "20") int limit,
+			@RequestParam(value = "after", required = false) String after) {
 		Optional<User> userOptional = userService.findById(userId);
 		if (!userOptional.isPresent()) {
 			throw new NotFoundException("User with id " + userId + " not found.");
 		}
-		List<Order> orderDtoList = orderService.listOrders(userOptional.get());
-		return new ResponseEntity<List<Order>>(orderDtoList, HttpStatus.OK);
+		return new ResponseEntity<>(orderService.listOrderSummaries(userOptional.get(), limit, after), HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to rebuild the order summaries from the orders
+	 * 
+	 * @return ResponseEntity<OrderSummaryRebuildDto>
+	 */
+	@ApiOperation(value = "Rebuild the order summaries from the orders")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully rebuilt"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@PostMapping("/orders/summary/rebuild")
+	public ResponseEntity<OrderSummaryRebuildDto> rebuildOrderSummaries() {
+		return new ResponseEntity<>(orderSummaryService.rebuild(), HttpStatus.OK);
 	}
 
 	/**
@@ -101,4 +172,26 @@ public class OrderController {
 		}
 		return new ResponseEntity<>(orderOptional.get(), HttpStatus.OK);
 	}
+
+	/**
+	 * Method used to get the status of an order for given id and userId
+	 * 
+	 * @param id     as Integer
+	 * @param userId as Integer
+	 * @return ResponseEntity<OrderStatusDto>
+	 */
+	@ApiOperation(value = "Retrieve status of order for given id and userId")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved status"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
+	@GetMapping("/orders/{id}/status")
+	public ResponseEntity<OrderStatusDto> getOrderStatus(@PathVariable("id") Integer id,
+			@RequestParam("userId") Integer userId) {
+		Optional<User> userOptional = userService.findById(userId);
+		if (!userOptional.isPresent()) {
+			throw new NotFoundException("User with id " + userId + " not found.");
+		}
+		return new ResponseEntity<>(orderService.getOrderStatus(id, userOptional.get()), HttpStatus.OK);
+	}
 }
@@ -0,0 +1,53 @@
+package com.company.ecommerce.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.company.ecommerce.dto.outbox.OutboxStatsDto;
+import com.company.ecommerce.outbox.OutboxRelay;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+@RestController
+@Api(value = "OutboxController", description = "Operations pertaining to order events in e-commerce application")
+public class OutboxController {
+
+	@Autowired
+	OutboxRelay outboxRelay;
+
+	/**
+	 * Method used to get the lag and throughput of the outbox relay
+	 * 
+	 * @return ResponseEntity<OutboxStatsDto>
+	 */
+	@ApiOperation(value = "Get lag and throughput of the outbox relay")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@GetMapping("/outbox/stats")
+	public ResponseEntity<OutboxStatsDto> getOutboxStats() {
+		return new ResponseEntity<>(outboxRelay.getStats(), HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to hand the dead-lettered outbox events back to the relay
+	 * 
+	 * @return ResponseEntity<OutboxStatsDto>
+	 */
+	@ApiOperation(value = "Requeue the dead-lettered outbox events")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully requeued"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@PostMapping("/outbox/dead-letters/requeue")
+	public ResponseEntity<OutboxStatsDto> requeueDeadLetters() {
+		outboxRelay.requeueDeadLetters();
+		return new ResponseEntity<>(outboxRelay.getStats(), HttpStatus.OK);
+	}
+}
@@ -1,26 +1,44 @@
 package com.company.ecommerce.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.company.ecommerce.cache.CatalogVersion;
+import com.company.ecommerce.dto.cache.CacheStatsDto;
+import com.company.ecommerce.dto.product.BulkImportResultDto;
 import com.company.ecommerce.dto.product.ProductDto;
+import com.company.ecommerce.dto.product.ProductPageDto;
+import com.company.ecommerce.dto.product.ProductSearchResultDto;
+import com.company.ecommerce.dto.product.StockDto;
+import com.company.ecommerce.enums.ProductSort;
 import com.company.ecommerce.exception.runtime.NotFoundException;
 import com.company.ecommerce.model.Category;
 import com.company.ecommerce.model.Product;
 import com.company.ecommerce.service.CategoryService;
+import com.company.ecommerce.service.InventoryService;
+import com.company.ecommerce.service.ProductImportService;
 import com.company.ecommerce.service.ProductService;
+import com.company.ecommerce.util.CommonUtil;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -37,24 +55,100 @@ public class ProductController {
 	@Autowired
 	CategoryService categoryService;
 
+	@Autowired
+	ProductImportService productImportService;
+
+	@Autowired
+	CatalogVersion catalogVersion;
+
+	@Autowired
+	InventoryService inventoryService;
+
+	@Value("${ecommerce.http.products.max-age-seconds:30}")
+	long maxAgeSeconds;
+
 	/**
-	 * Method used to retrieve list of available products
+	 * Method used to retrieve a page of available products. The next page is
+	 * requested by passing the returned nextCursor as after.
 	 * 
-	 * @return ResponseEntity<List<ProductDto>>
+	 * @param limit      as int
+	 * @param after      as String
+	 * @param sort       as ProductSort
+	 * @param page       as Integer
+	 * @param categoryId as Integer
+	 * @param request    as WebRequest
+	 * @return ResponseEntity<ProductPageDto>
 	 */
-	@ApiOperation(value = "Retrieve list of available products", response = Iterable.class)
+	@ApiOperation(value = "Retrieve a page of available products", response = ProductPageDto.class)
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved list"),
 			@ApiResponse(code = 204, message = "Successfully retrieved list but list is empty"),
+			@ApiResponse(code = 304, message = "Catalog not modified since given ETag"),
+			@ApiResponse(code = 400, message = "Invalid paging parameters"),
 			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
 			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
 			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
 	@GetMapping("/products")
-	public ResponseEntity<List<ProductDto>> getProducts() {
-		List<ProductDto> productDtos = productService.listProducts();
-		if (productDtos.isEmpty()) {
-			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	public ResponseEntity<ProductPageDto> getProducts(@RequestParam(value = "limit", defaultValue = "50") int limit,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "sort", defaultValue = "id") ProductSort sort,
+			@RequestParam(value = "page", required = false) Integer page,
+			@RequestParam(value = "category", required = false) Integer categoryId, WebRequest request) {
+		String eTag = catalogVersion.getETag();
+		HttpHeaders headers = CommonUtil.cacheHeaders(eTag, maxAgeSeconds);
+		if (request.checkNotModified(eTag)) {
+			return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+		}
+		ProductPageDto productPage = productService.listProducts(limit, after, sort, page, categoryId);
+		if (productPage.getProducts().isEmpty()) {
+			return new ResponseEntity<>(headers, HttpStatus.NO_CONTENT);
+		}
+		return new ResponseEntity<>(productPage, headers, HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to search products by name and description, best matches
+	 * first
+	 * 
+	 * @param query   as String
+	 * @param page    as int
+	 * @param size    as int
+	 * @param request as WebRequest
+	 * @return ResponseEntity<ProductSearchResultDto>
+	 */
+	@ApiOperation(value = "Search products by name and description", response = ProductSearchResultDto.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 304, message = "Catalog not modified since given ETag"),
+			@ApiResponse(code = 400, message = "Invalid search parameters"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@GetMapping("/products/search")
+	public ResponseEntity<ProductSearchResultDto> searchProducts(@RequestParam("q") String query,
+			@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "size", defaultValue = "20") int size, WebRequest request) {
+		String eTag = catalogVersion.getETag();
+		HttpHeaders headers = CommonUtil.cacheHeaders(eTag, maxAgeSeconds);
+		if (request.checkNotModified(eTag)) {
+			return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
 		}
-		return new ResponseEntity<>(productDtos, HttpStatus.OK);
+		return new ResponseEntity<>(productService.searchProducts(query, page, size), headers, HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to export the whole catalog as newline delimited JSON, one
+	 * product per line. The response is streamed while the catalog is read.
+	 * 
+	 * @return ResponseEntity<StreamingResponseBody>
+	 */
+	@ApiOperation(value = "Export all products as newline delimited JSON")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully exported"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@GetMapping(value = "/products/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportProducts() {
+		StreamingResponseBody body = outputStream -> productService.exportProducts(outputStream);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_NDJSON);
+		return new ResponseEntity<>(body, headers, HttpStatus.OK);
 	}
 
 	/**
@@ -80,6 +174,40 @@ public class ProductController {
 		return new ResponseEntity<>(savedProduct, HttpStatus.CREATED);
 	}
 
+	/**
+	 * Method used to import a JSON array of products in batches. Rows that
+	 * cannot be imported are reported with their position in the array.
+	 * 
+	 * @param productDtos as List<ProductDto>
+	 * @return ResponseEntity<BulkImportResultDto>
+	 */
+	@ApiOperation(value = "Import a JSON array of products")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Import finished, see result for failed rows"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@PostMapping(value = "/products/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<BulkImportResultDto> importProducts(@RequestBody List<ProductDto> productDtos) {
+		return new ResponseEntity<>(productImportService.importProducts(productDtos), HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to import newline delimited JSON products in batches while the
+	 * request body is read. Rows that cannot be imported are reported with their
+	 * line number.
+	 * 
+	 * @param inputStream as InputStream
+	 * @return ResponseEntity<BulkImportResultDto>
+	 * @throws IOException
+	 */
+	@ApiOperation(value = "Import newline delimited JSON products")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Import finished, see result for failed rows"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@PostMapping(value = "/products/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<BulkImportResultDto> importProductsStream(InputStream inputStream) throws IOException {
+		return new ResponseEntity<>(productImportService.importProducts(inputStream), HttpStatus.OK);
+	}
+
 	/**
 	 * Method used to update a product
 	 * 
@@ -103,4 +231,55 @@ public class ProductController {
 		Category category = optionalCategory.get();
 		return new ResponseEntity<>(productService.updateProduct(productID, productDto, category), HttpStatus.OK);
 	}
+
+	/**
+	 * Method used to get the stock of a product
+	 * 
+	 * @param productId as Integer
+	 * @return ResponseEntity<StockDto>
+	 */
+	@ApiOperation(value = "Retrieve the stock of a product")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
+	@GetMapping("/products/{productID}/stock")
+	public ResponseEntity<StockDto> getStock(@PathVariable("productID") Integer productID) {
+		return new ResponseEntity<>(inventoryService.getStock(productID), HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to add to, or with a negative quantity remove from, the stock
+	 * of a product
+	 * 
+	 * @param productId as Integer
+	 * @param quantity  as int
+	 * @return ResponseEntity<StockDto>
+	 */
+	@ApiOperation(value = "Add to the stock of a product")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully updated"),
+			@ApiResponse(code = 400, message = "The stock would go below zero"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found") })
+	@PostMapping("/products/{productID}/stock")
+	public ResponseEntity<StockDto> addStock(@PathVariable("productID") Integer productID,
+			@RequestParam("quantity") int quantity) {
+		return new ResponseEntity<>(inventoryService.addStock(productID, quantity), HttpStatus.OK);
+	}
+
+	/**
+	 * Method used to retrieve hit, miss and eviction counters of the product
+	 * cache
+	 * 
+	 * @return ResponseEntity<CacheStatsDto>
+	 */
+	@ApiOperation(value = "Retrieve product cache statistics")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retrieved"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden") })
+	@GetMapping("/products/cache/stats")
+	public ResponseEntity<CacheStatsDto> getCacheStats() {
+		return new ResponseEntity<>(productService.getCacheStats(), HttpStatus.OK);
+	}
 }
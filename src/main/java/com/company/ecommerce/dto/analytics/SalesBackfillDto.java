@@ -0,0 +1,63 @@
+package com.company.ecommerce.dto.analytics;
+
+import java.time.LocalDate;
+
+public class SalesBackfillDto {
+
+	private LocalDate from;
+	private LocalDate to;
+	private long productRows;
+	private long categoryRows;
+	private long millis;
+
+	public SalesBackfillDto() {
+	}
+
+	public SalesBackfillDto(LocalDate from, LocalDate to, long productRows, long categoryRows, long millis) {
+		this.from = from;
+		this.to = to;
+		this.productRows = productRows;
+		this.categoryRows = categoryRows;
+		this.millis = millis;
+	}
+
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	public void setFrom(LocalDate from) {
+		this.from = from;
+	}
+
+	public LocalDate getTo() {
+		return to;
+	}
+
+	public void setTo(LocalDate to) {
+		this.to = to;
+	}
+
+	public long getProductRows() {
+		return productRows;
+	}
+
+	public void setProductRows(long productRows) {
+		this.productRows = productRows;
+	}
+
+	public long getCategoryRows() {
+		return categoryRows;
+	}
+
+	public void setCategoryRows(long categoryRows) {
+		this.categoryRows = categoryRows;
+	}
+
+	public long getMillis() {
+		return millis;
+	}
+
+	public void setMillis(long millis) {
+		this.millis = millis;
+	}
+}
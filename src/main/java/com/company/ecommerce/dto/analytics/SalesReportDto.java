@@ -0,0 +1,56 @@
+package com.company.ecommerce.dto.analytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.company.ecommerce.enums.SalesGroupBy;
+
+public class SalesReportDto {
+
+	private LocalDate from;
+	private LocalDate to;
+	private SalesGroupBy groupBy;
+	private List<SalesRowDto> rows;
+
+	public SalesReportDto() {
+	}
+
+	public SalesReportDto(LocalDate from, LocalDate to, SalesGroupBy groupBy, List<SalesRowDto> rows) {
+		this.from = from;
+		this.to = to;
+		this.groupBy = groupBy;
+		this.rows = rows;
+	}
+
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	public void setFrom(LocalDate from) {
+		this.from = from;
+	}
+
+	public LocalDate getTo() {
+		return to;
+	}
+
+	public void setTo(LocalDate to) {
+		this.to = to;
+	}
+
+	public SalesGroupBy getGroupBy() {
+		return groupBy;
+	}
+
+	public void setGroupBy(SalesGroupBy groupBy) {
+		this.groupBy = groupBy;
+	}
+
+	public List<SalesRowDto> getRows() {
+		return rows;
+	}
+
+	public void setRows(List<SalesRowDto> rows) {
+		this.rows = rows;
+	}
+}
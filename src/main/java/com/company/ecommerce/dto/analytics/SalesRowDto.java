@@ -0,0 +1,59 @@
+package com.company.ecommerce.dto.analytics;
+
+import java.time.LocalDate;
+
+public class SalesRowDto {
+
+	private Integer id;
+	private LocalDate day;
+	private long units;
+	private double revenue;
+
+	public SalesRowDto() {
+	}
+
+	public SalesRowDto(Integer id, LocalDate day, long units, double revenue) {
+		this.id = id;
+		this.day = day;
+		this.units = units;
+		this.revenue = revenue;
+	}
+
+	/**
+	 * The product or category id, null when grouped by day.
+	 */
+	public Integer getId() {
+		return id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	/**
+	 * The day, null unless grouped by day.
+	 */
+	public LocalDate getDay() {
+		return day;
+	}
+
+	public void setDay(LocalDate day) {
+		this.day = day;
+	}
+
+	public long getUnits() {
+		return units;
+	}
+
+	public void setUnits(long units) {
+		this.units = units;
+	}
+
+	public double getRevenue() {
+		return revenue;
+	}
+
+	public void setRevenue(double revenue) {
+		this.revenue = revenue;
+	}
+}
@@ -0,0 +1,48 @@
+package com.company.ecommerce.dto.cart;
+
+import javax.validation.constraints.NotNull;
+
+import com.company.ecommerce.enums.CartOperationType;
+
+/**
+ * One line change of a batch cart update. "add" adds the quantity to the line,
+ * "set" replaces it (0 removes the line) and "remove" removes the line.
+ */
+public class CartOperationDto {
+	private @NotNull CartOperationType op;
+	private @NotNull Integer productId;
+	private Integer quantity;
+
+	public CartOperationDto() {
+	}
+
+	public CartOperationDto(CartOperationType op, Integer productId, Integer quantity) {
+		this.op = op;
+		this.productId = productId;
+		this.quantity = quantity;
+	}
+
+	public CartOperationType getOp() {
+		return op;
+	}
+
+	public void setOp(CartOperationType op) {
+		this.op = op;
+	}
+
+	public Integer getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Integer productId) {
+		this.productId = productId;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+}
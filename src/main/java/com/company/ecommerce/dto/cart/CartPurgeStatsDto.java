@@ -0,0 +1,74 @@
+package com.company.ecommerce.dto.cart;
+
+import java.util.Date;
+
+public class CartPurgeStatsDto {
+
+	private long runs;
+	private long linesPurged;
+	private long totalMillis;
+	private Date lastRunAt;
+	private long lastRunLinesPurged;
+	private long lastRunMillis;
+
+	public CartPurgeStatsDto() {
+	}
+
+	public CartPurgeStatsDto(long runs, long linesPurged, long totalMillis, Date lastRunAt, long lastRunLinesPurged,
+			long lastRunMillis) {
+		this.runs = runs;
+		this.linesPurged = linesPurged;
+		this.totalMillis = totalMillis;
+		this.lastRunAt = lastRunAt;
+		this.lastRunLinesPurged = lastRunLinesPurged;
+		this.lastRunMillis = lastRunMillis;
+	}
+
+	public long getRuns() {
+		return runs;
+	}
+
+	public void setRuns(long runs) {
+		this.runs = runs;
+	}
+
+	public long getLinesPurged() {
+		return linesPurged;
+	}
+
+	public void setLinesPurged(long linesPurged) {
+		this.linesPurged = linesPurged;
+	}
+
+	public long getTotalMillis() {
+		return totalMillis;
+	}
+
+	public void setTotalMillis(long totalMillis) {
+		this.totalMillis = totalMillis;
+	}
+
+	public Date getLastRunAt() {
+		return lastRunAt;
+	}
+
+	public void setLastRunAt(Date lastRunAt) {
+		this.lastRunAt = lastRunAt;
+	}
+
+	public long getLastRunLinesPurged() {
+		return lastRunLinesPurged;
+	}
+
+	public void setLastRunLinesPurged(long lastRunLinesPurged) {
+		this.lastRunLinesPurged = lastRunLinesPurged;
+	}
+
+	public long getLastRunMillis() {
+		return lastRunMillis;
+	}
+
+	public void setLastRunMillis(long lastRunMillis) {
+		this.lastRunMillis = lastRunMillis;
+	}
+}
@@ -0,0 +1,41 @@
+package com.company.ecommerce.dto.cart;
+
+public class CartSummaryDto {
+
+	private Integer userId;
+	private long itemCount;
+	private double subtotal;
+
+	public CartSummaryDto() {
+	}
+
+	public CartSummaryDto(Integer userId, long itemCount, double subtotal) {
+		this.userId = userId;
+		this.itemCount = itemCount;
+		this.subtotal = subtotal;
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	public long getItemCount() {
+		return itemCount;
+	}
+
+	public void setItemCount(long itemCount) {
+		this.itemCount = itemCount;
+	}
+
+	public double getSubtotal() {
+		return subtotal;
+	}
+
+	public void setSubtotal(double subtotal) {
+		this.subtotal = subtotal;
+	}
+}
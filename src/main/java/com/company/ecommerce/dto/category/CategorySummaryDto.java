@@ -0,0 +1,51 @@
+package com.company.ecommerce.dto.category;
+
+public class CategorySummaryDto {
+
+	private Integer id;
+	private String categoryName;
+	private String imageUrl;
+	private long productCount;
+
+	public CategorySummaryDto() {
+	}
+
+	public CategorySummaryDto(Integer id, String categoryName, String imageUrl, long productCount) {
+		this.id = id;
+		this.categoryName = categoryName;
+		this.imageUrl = imageUrl;
+		this.productCount = productCount;
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	public String getCategoryName() {
+		return categoryName;
+	}
+
+	public void setCategoryName(String categoryName) {
+		this.categoryName = categoryName;
+	}
+
+	public String getImageUrl() {
+		return imageUrl;
+	}
+
+	public void setImageUrl(String imageUrl) {
+		this.imageUrl = imageUrl;
+	}
+
+	public long getProductCount() {
+		return productCount;
+	}
+
+	public void setProductCount(long productCount) {
+		this.productCount = productCount;
+	}
+}
@@ -0,0 +1,41 @@
+package com.company.ecommerce.dto.category;
+
+public class PriceBucketDto {
+
+	private Double from;
+	private Double to;
+	private long count;
+
+	public PriceBucketDto() {
+	}
+
+	public PriceBucketDto(Double from, Double to, long count) {
+		this.from = from;
+		this.to = to;
+		this.count = count;
+	}
+
+	public Double getFrom() {
+		return from;
+	}
+
+	public void setFrom(Double from) {
+		this.from = from;
+	}
+
+	public Double getTo() {
+		return to;
+	}
+
+	public void setTo(Double to) {
+		this.to = to;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+}
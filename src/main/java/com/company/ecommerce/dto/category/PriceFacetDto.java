@@ -0,0 +1,64 @@
+package com.company.ecommerce.dto.category;
+
+import java.util.List;
+
+public class PriceFacetDto {
+
+	private Integer categoryId;
+	private long count;
+	private Double minPrice;
+	private Double maxPrice;
+	private List<PriceBucketDto> buckets;
+
+	public PriceFacetDto() {
+	}
+
+	public PriceFacetDto(Integer categoryId, long count, Double minPrice, Double maxPrice,
+			List<PriceBucketDto> buckets) {
+		this.categoryId = categoryId;
+		this.count = count;
+		this.minPrice = minPrice;
+		this.maxPrice = maxPrice;
+		this.buckets = buckets;
+	}
+
+	public Integer getCategoryId() {
+		return categoryId;
+	}
+
+	public void setCategoryId(Integer categoryId) {
+		this.categoryId = categoryId;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	public Double getMinPrice() {
+		return minPrice;
+	}
+
+	public void setMinPrice(Double minPrice) {
+		this.minPrice = minPrice;
+	}
+
+	public Double getMaxPrice() {
+		return maxPrice;
+	}
+
+	public void setMaxPrice(Double maxPrice) {
+		this.maxPrice = maxPrice;
+	}
+
+	public List<PriceBucketDto> getBuckets() {
+		return buckets;
+	}
+
+	public void setBuckets(List<PriceBucketDto> buckets) {
+		this.buckets = buckets;
+	}
+}
@@ -0,0 +1,68 @@
+package com.company.ecommerce.dto.concurrency;
+
+public class OptimisticRetryStatsDto {
+
+	private String operation;
+	private long executions;
+	private long conflicts;
+	private long retries;
+	private long failures;
+
+	public OptimisticRetryStatsDto() {
+	}
+
+	public OptimisticRetryStatsDto(String operation, long executions, long conflicts, long retries, long failures) {
+		this.operation = operation;
+		this.executions = executions;
+		this.conflicts = conflicts;
+		this.retries = retries;
+		this.failures = failures;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public void setOperation(String operation) {
+		this.operation = operation;
+	}
+
+	public long getExecutions() {
+		return executions;
+	}
+
+	public void setExecutions(long executions) {
+		this.executions = executions;
+	}
+
+	public long getConflicts() {
+		return conflicts;
+	}
+
+	public void setConflicts(long conflicts) {
+		this.conflicts = conflicts;
+	}
+
+	public long getRetries() {
+		return retries;
+	}
+
+	public void setRetries(long retries) {
+		this.retries = retries;
+	}
+
+	public long getFailures() {
+		return failures;
+	}
+
+	public void setFailures(long failures) {
+		this.failures = failures;
+	}
+
+	/**
+	 * Conflicts per execution; above 1 when operations conflict repeatedly.
+	 */
+	public double getConflictRate() {
+		return executions == 0 ? 0 : (double) conflicts / executions;
+	}
+}
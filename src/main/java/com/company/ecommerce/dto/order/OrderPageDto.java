@@ -0,0 +1,35 @@
+package com.company.ecommerce.dto.order;
+
+import java.util.List;
+
+import com.company.ecommerce.model.Order;
+
+public class OrderPageDto {
+
+	private List<Order> orders;
+	private String nextCursor;
+
+	public OrderPageDto() {
+	}
+
+	public OrderPageDto(List<Order> orders, String nextCursor) {
+		this.orders = orders;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<Order> getOrders() {
+		return orders;
+	}
+
+	public void setOrders(List<Order> orders) {
+		this.orders = orders;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
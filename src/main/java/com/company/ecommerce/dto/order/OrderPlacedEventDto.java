@@ -0,0 +1,67 @@
+package com.company.ecommerce.dto.order;
+
+import java.util.Date;
+import java.util.List;
+
+import com.company.ecommerce.dto.checkout.CheckoutItemDto;
+
+public class OrderPlacedEventDto {
+
+	private Integer orderId;
+	private Integer userId;
+	private Double totalPrice;
+	private Date createdDate;
+	private List<CheckoutItemDto> items;
+
+	public OrderPlacedEventDto() {
+	}
+
+	public OrderPlacedEventDto(Integer orderId, Integer userId, Double totalPrice, Date createdDate,
+			List<CheckoutItemDto> items) {
+		this.orderId = orderId;
+		this.userId = userId;
+		this.totalPrice = totalPrice;
+		this.createdDate = createdDate;
+		this.items = items;
+	}
+
+	public Integer getOrderId() {
+		return orderId;
+	}
+
+	public void setOrderId(Integer orderId) {
+		this.orderId = orderId;
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	public Double getTotalPrice() {
+		return totalPrice;
+	}
+
+	public void setTotalPrice(Double totalPrice) {
+		this.totalPrice = totalPrice;
+	}
+
+	public Date getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(Date createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public List<CheckoutItemDto> getItems() {
+		return items;
+	}
+
+	public void setItems(List<CheckoutItemDto> items) {
+		this.items = items;
+	}
+}
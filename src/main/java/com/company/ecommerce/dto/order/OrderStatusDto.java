@@ -0,0 +1,44 @@
+package com.company.ecommerce.dto.order;
+
+import com.company.ecommerce.enums.OrderStatus;
+import com.company.ecommerce.model.Order;
+
+public class OrderStatusDto {
+	private Integer id;
+	private OrderStatus status;
+	private Double totalPrice;
+
+	public OrderStatusDto() {
+	}
+
+	public OrderStatusDto(Order order) {
+		this.setId(order.getId());
+		// orders from before statuses were recorded were all placed
+		this.setStatus(order.getStatus() == null ? OrderStatus.placed : order.getStatus());
+		this.setTotalPrice(order.getTotalPrice());
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	public OrderStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(OrderStatus status) {
+		this.status = status;
+	}
+
+	public Double getTotalPrice() {
+		return totalPrice;
+	}
+
+	public void setTotalPrice(Double totalPrice) {
+		this.totalPrice = totalPrice;
+	}
+}
@@ -0,0 +1,64 @@
+package com.company.ecommerce.dto.order;
+
+import java.util.Date;
+
+public class OrderSummaryDto {
+
+	private Integer orderId;
+	private Date createdDate;
+	private Double totalPrice;
+	private long itemCount;
+	private String firstProductName;
+
+	public OrderSummaryDto() {
+	}
+
+	public OrderSummaryDto(Integer orderId, Date createdDate, Double totalPrice, long itemCount,
+			String firstProductName) {
+		this.orderId = orderId;
+		this.createdDate = createdDate;
+		this.totalPrice = totalPrice;
+		this.itemCount = itemCount;
+		this.firstProductName = firstProductName;
+	}
+
+	public Integer getOrderId() {
+		return orderId;
+	}
+
+	public void setOrderId(Integer orderId) {
+		this.orderId = orderId;
+	}
+
+	public Date getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(Date createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public Double getTotalPrice() {
+		return totalPrice;
+	}
+
+	public void setTotalPrice(Double totalPrice) {
+		this.totalPrice = totalPrice;
+	}
+
+	public long getItemCount() {
+		return itemCount;
+	}
+
+	public void setItemCount(long itemCount) {
+		this.itemCount = itemCount;
+	}
+
+	public String getFirstProductName() {
+		return firstProductName;
+	}
+
+	public void setFirstProductName(String firstProductName) {
+		this.firstProductName = firstProductName;
+	}
+}
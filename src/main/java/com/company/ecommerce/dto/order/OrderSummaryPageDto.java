@@ -0,0 +1,33 @@
+package com.company.ecommerce.dto.order;
+
+import java.util.List;
+
+public class OrderSummaryPageDto {
+
+	private List<OrderSummaryDto> summaries;
+	private String nextCursor;
+
+	public OrderSummaryPageDto() {
+	}
+
+	public OrderSummaryPageDto(List<OrderSummaryDto> summaries, String nextCursor) {
+		this.summaries = summaries;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<OrderSummaryDto> getSummaries() {
+		return summaries;
+	}
+
+	public void setSummaries(List<OrderSummaryDto> summaries) {
+		this.summaries = summaries;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
@@ -0,0 +1,41 @@
+package com.company.ecommerce.dto.order;
+
+public class OrderSummaryRebuildDto {
+
+	private int chunks;
+	private long summaries;
+	private long millis;
+
+	public OrderSummaryRebuildDto() {
+	}
+
+	public OrderSummaryRebuildDto(int chunks, long summaries, long millis) {
+		this.chunks = chunks;
+		this.summaries = summaries;
+		this.millis = millis;
+	}
+
+	public int getChunks() {
+		return chunks;
+	}
+
+	public void setChunks(int chunks) {
+		this.chunks = chunks;
+	}
+
+	public long getSummaries() {
+		return summaries;
+	}
+
+	public void setSummaries(long summaries) {
+		this.summaries = summaries;
+	}
+
+	public long getMillis() {
+		return millis;
+	}
+
+	public void setMillis(long millis) {
+		this.millis = millis;
+	}
+}
@@ -0,0 +1,114 @@
+package com.company.ecommerce.dto.outbox;
+
+import java.util.Date;
+
+public class OutboxStatsDto {
+
+	private long pendingEvents;
+	private long deadLetteredEvents;
+	private long lagMillis;
+	private long publishedEvents;
+	private long failedBatches;
+	private Date lastRunAt;
+	private long lastRunEvents;
+	private long lastRunMillis;
+	private double eventsPerSecond;
+
+	public OutboxStatsDto() {
+	}
+
+	public OutboxStatsDto(long pendingEvents, long deadLetteredEvents, long lagMillis, long publishedEvents,
+			long publishingMillis, long failedBatches, Date lastRunAt, long lastRunEvents, long lastRunMillis) {
+		this.pendingEvents = pendingEvents;
+		this.deadLetteredEvents = deadLetteredEvents;
+		this.lagMillis = lagMillis;
+		this.publishedEvents = publishedEvents;
+		this.failedBatches = failedBatches;
+		this.lastRunAt = lastRunAt;
+		this.lastRunEvents = lastRunEvents;
+		this.lastRunMillis = lastRunMillis;
+		this.eventsPerSecond = publishedEvents == 0 ? 0 : publishedEvents * 1000.0 / Math.max(1, publishingMillis);
+	}
+
+	public long getPendingEvents() {
+		return pendingEvents;
+	}
+
+	public void setPendingEvents(long pendingEvents) {
+		this.pendingEvents = pendingEvents;
+	}
+
+	/**
+	 * Events that failed max-attempts times and wait to be requeued.
+	 */
+	public long getDeadLetteredEvents() {
+		return deadLetteredEvents;
+	}
+
+	public void setDeadLetteredEvents(long deadLetteredEvents) {
+		this.deadLetteredEvents = deadLetteredEvents;
+	}
+
+	/**
+	 * Age of the oldest event not yet published, dead-lettered events aside, 0
+	 * when none is pending.
+	 */
+	public long getLagMillis() {
+		return lagMillis;
+	}
+
+	public void setLagMillis(long lagMillis) {
+		this.lagMillis = lagMillis;
+	}
+
+	public long getPublishedEvents() {
+		return publishedEvents;
+	}
+
+	public void setPublishedEvents(long publishedEvents) {
+		this.publishedEvents = publishedEvents;
+	}
+
+	public long getFailedBatches() {
+		return failedBatches;
+	}
+
+	public void setFailedBatches(long failedBatches) {
+		this.failedBatches = failedBatches;
+	}
+
+	public Date getLastRunAt() {
+		return lastRunAt;
+	}
+
+	public void setLastRunAt(Date lastRunAt) {
+		this.lastRunAt = lastRunAt;
+	}
+
+	public long getLastRunEvents() {
+		return lastRunEvents;
+	}
+
+	public void setLastRunEvents(long lastRunEvents) {
+		this.lastRunEvents = lastRunEvents;
+	}
+
+	public long getLastRunMillis() {
+		return lastRunMillis;
+	}
+
+	public void setLastRunMillis(long lastRunMillis) {
+		this.lastRunMillis = lastRunMillis;
+	}
+
+	/**
+	 * Events published per second over the runs that published any.
+	 */
+	public double getEventsPerSecond() {
+		return eventsPerSecond;
+	}
+
+	public void setEventsPerSecond(double eventsPerSecond) {
+		this.eventsPerSecond = eventsPerSecond;
+	}
+}
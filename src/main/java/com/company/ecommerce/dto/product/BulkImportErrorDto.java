@@ -0,0 +1,31 @@
+package com.company.ecommerce.dto.product;
+
+public class BulkImportErrorDto {
+
+	private int row;
+	private String message;
+
+	public BulkImportErrorDto() {
+	}
+
+	public BulkImportErrorDto(int row, String message) {
+		this.row = row;
+		this.message = message;
+	}
+
+	public int getRow() {
+		return row;
+	}
+
+	public void setRow(int row) {
+		this.row = row;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
@@ -0,0 +1,69 @@
+package com.company.ecommerce.dto.product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkImportResultDto {
+
+	public static final int MAX_REPORTED_ERRORS = 1000;
+
+	private int imported;
+	private int failed;
+	private List<BulkImportErrorDto> errors = new ArrayList<>();
+
+	public BulkImportResultDto() {
+	}
+
+	/**
+	 * Counts a failed row. Only the first MAX_REPORTED_ERRORS are reported in
+	 * detail so a bad feed cannot blow up the response.
+	 */
+	public void addError(int row, String message) {
+		failed++;
+		if (errors.size() < MAX_REPORTED_ERRORS) {
+			errors.add(new BulkImportErrorDto(row, message));
+		}
+	}
+
+	public void addImported(int count) {
+		imported += count;
+	}
+
+	/**
+	 * Adds the counts and errors of another result, such as that of one batch.
+	 */
+	public void add(BulkImportResultDto other) {
+		imported += other.imported;
+		failed += other.failed;
+		for (BulkImportErrorDto error : other.errors) {
+			if (errors.size() >= MAX_REPORTED_ERRORS) {
+				break;
+			}
+			errors.add(error);
+		}
+	}
+
+	public int getImported() {
+		return imported;
+	}
+
+	public void setImported(int imported) {
+		this.imported = imported;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public List<BulkImportErrorDto> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<BulkImportErrorDto> errors) {
+		this.errors = errors;
+	}
+}
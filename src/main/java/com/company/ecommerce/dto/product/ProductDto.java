@@ -31,6 +31,16 @@ public class ProductDto {
 		this.categoryId = categoryId;
 	}
 
+	public ProductDto(Integer id, String name, String imageURL, double price, String description,
+			Integer categoryId) {
+		this.id = id;
+		this.name = name;
+		this.imageURL = imageURL;
+		this.price = price;
+		this.description = description;
+		this.categoryId = categoryId;
+	}
+
 	public ProductDto() {
 	}
 
@@ -0,0 +1,33 @@
+package com.company.ecommerce.dto.product;
+
+import java.util.List;
+
+public class ProductPageDto {
+
+	private List<ProductDto> products;
+	private String nextCursor;
+
+	public ProductPageDto() {
+	}
+
+	public ProductPageDto(List<ProductDto> products, String nextCursor) {
+		this.products = products;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<ProductDto> getProducts() {
+		return products;
+	}
+
+	public void setProducts(List<ProductDto> products) {
+		this.products = products;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
@@ -0,0 +1,33 @@
+package com.company.ecommerce.dto.product;
+
+import java.util.List;
+
+public class ProductSearchResultDto {
+
+	private List<ProductDto> products;
+	private int totalHits;
+
+	public ProductSearchResultDto() {
+	}
+
+	public ProductSearchResultDto(List<ProductDto> products, int totalHits) {
+		this.products = products;
+		this.totalHits = totalHits;
+	}
+
+	public List<ProductDto> getProducts() {
+		return products;
+	}
+
+	public void setProducts(List<ProductDto> products) {
+		this.products = products;
+	}
+
+	public int getTotalHits() {
+		return totalHits;
+	}
+
+	public void setTotalHits(int totalHits) {
+		this.totalHits = totalHits;
+	}
+}
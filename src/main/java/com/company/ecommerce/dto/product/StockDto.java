@@ -0,0 +1,33 @@
+package com.company.ecommerce.dto.product;
+
+public class StockDto {
+	private Integer productId;
+	private Integer stock;
+
+	public StockDto() {
+	}
+
+	public StockDto(Integer productId, Integer stock) {
+		this.productId = productId;
+		this.stock = stock;
+	}
+
+	public Integer getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Integer productId) {
+		this.productId = productId;
+	}
+
+	/**
+	 * Units available, null if the product's stock is not tracked.
+	 */
+	public Integer getStock() {
+		return stock;
+	}
+
+	public void setStock(Integer stock) {
+		this.stock = stock;
+	}
+}
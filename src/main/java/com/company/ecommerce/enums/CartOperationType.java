@@ -0,0 +1,5 @@
+package com.company.ecommerce.enums;
+
+public enum CartOperationType {
+	add, set, remove
+}
@@ -0,0 +1,5 @@
+package com.company.ecommerce.enums;
+
+public enum ProductSort {
+	id, price, name
+}
@@ -1,5 +1,6 @@
 package com.company.ecommerce.exception.handler;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,8 +12,11 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import com.company.ecommerce.exception.response.ExceptionResponse;
+import com.company.ecommerce.exception.runtime.BadRequestException;
 import com.company.ecommerce.exception.runtime.DuplicateFoundException;
 import com.company.ecommerce.exception.runtime.NotFoundException;
+import com.company.ecommerce.exception.runtime.OutOfStockException;
+import com.company.ecommerce.exception.runtime.TooManyRequestsException;
 
 @ControllerAdvice
 @RestController
@@ -36,6 +40,35 @@ public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExce
 		return new ResponseEntity(exceptionResponse, HttpStatus.CONFLICT);
 	}
 
+	@ExceptionHandler(OutOfStockException.class)
+	public final ResponseEntity<Object> handleOutOfStockException(OutOfStockException ex, WebRequest request) {
+		ExceptionResponse exceptionResponse = new ExceptionResponse(ex.getMessage(), request.getDescription(false));
+		return new ResponseEntity(exceptionResponse, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(BadRequestException.class)
+	public final ResponseEntity<Object> handleBadRequestException(BadRequestException ex, WebRequest request) {
+		ExceptionResponse exceptionResponse = new ExceptionResponse(ex.getMessage(), request.getDescription(false));
+		return new ResponseEntity(exceptionResponse, HttpStatus.BAD_REQUEST);
+	}
+
+	@ExceptionHandler(TooManyRequestsException.class)
+	public final ResponseEntity<Object> handleTooManyRequestsException(TooManyRequestsException ex,
+			WebRequest request) {
+		ExceptionResponse exceptionResponse = new ExceptionResponse(ex.getMessage(), request.getDescription(false));
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, "1");
+		return new ResponseEntity(exceptionResponse, headers, HttpStatus.TOO_MANY_REQUESTS);
+	}
+
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public final ResponseEntity<Object> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex,
+			WebRequest request) {
+		ExceptionResponse exceptionResponse = new ExceptionResponse(
+				"The resource was changed concurrently, please try again.", request.getDescription(false));
+		return new ResponseEntity(exceptionResponse, HttpStatus.CONFLICT);
+	}
+
 	@Override
 	protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
 			HttpHeaders headers, HttpStatus status, WebRequest request) {
@@ -0,0 +1,17 @@
+package com.company.ecommerce.exception.runtime;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OutOfStockException extends RuntimeException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public OutOfStockException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,66 @@
+package com.company.ecommerce.idempotency;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.company.ecommerce.model.IdempotencyRecord;
+import com.company.ecommerce.repository.IdempotencyRecordRepository;
+
+/**
+ * Keeps the responses in the idempotency_keys table, so a retry is answered
+ * from the stored response whichever node it reaches. Expired rows are
+ * deleted periodically.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.idempotency.storage", havingValue = "database")
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+	@Autowired
+	IdempotencyRecordRepository repository;
+
+	@Value("${ecommerce.idempotency.ttl-seconds:86400}")
+	long ttlSeconds;
+
+	@Override
+	public IdempotentResponse get(String key) {
+		Optional<IdempotencyRecord> recordOptional = repository.findById(key);
+		if (!recordOptional.isPresent() || recordOptional.get().getExpiresAt().before(new Date())) {
+			return null;
+		}
+		IdempotencyRecord record = recordOptional.get();
+		return new IdempotentResponse(record.getFingerprint(), record.getStatus(), record.getContentType(),
+				record.getLocation(), record.getBody());
+	}
+
+	/**
+	 * Inserts the response, after removing an expired one for the key that has
+	 * not been cleaned up yet. The record is never merged, so when another node
+	 * already stored a response for the key the insert fails and that response
+	 * stays.
+	 */
+	@Override
+	public void put(String key, IdempotentResponse response) {
+		Date now = new Date();
+		Date expiresAt = new Date(now.getTime() + TimeUnit.SECONDS.toMillis(ttlSeconds));
+		repository.deleteExpiredKey(key, now);
+		try {
+			repository.saveAndFlush(new IdempotencyRecord(key, response.getFingerprint(), response.getStatus(),
+					response.getContentType(), response.getLocation(), response.getBody(), expiresAt));
+		} catch (DataIntegrityViolationException e) {
+			// another node stored a response for the same key first, keep that one
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${ecommerce.idempotency.cleanup-interval-ms:60000}")
+	public void deleteExpired() {
+		repository.deleteExpired(new Date());
+	}
+}
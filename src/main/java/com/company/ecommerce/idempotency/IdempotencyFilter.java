@@ -0,0 +1,241 @@
+package com.company.ecommerce.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.company.ecommerce.exception.response.ExceptionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Makes POSTs to the configured paths (POST /orders and POST /carts) safe to
+ * retry. A request sent with an Idempotency-Key header runs once per key, path
+ * and query string; its 2xx response is stored and replayed as is to repeats
+ * with the same body, which never reach the controller. A repeat arriving
+ * while the first request is still running waits for its response instead of
+ * running alongside it. Reusing a key with a different body is rejected with
+ * 422. Failed requests store nothing, so they can be retried with the same
+ * key.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+	public static final String HEADER = "Idempotency-Key";
+
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	private static final int MAX_KEY_LENGTH = 255;
+
+	@Autowired
+	IdempotencyStore store;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Value("${ecommerce.idempotency.paths:/orders,/carts}")
+	Set<String> paths;
+
+	@Value("${ecommerce.idempotency.wait-ms:30000}")
+	long waitMillis;
+
+	private final ConcurrentMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null
+				|| !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String idempotencyKey = request.getHeader(HEADER);
+		if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+			writeError(request, response, HttpStatus.BAD_REQUEST,
+					HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters long.");
+			return;
+		}
+		byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+		String fingerprint = fingerprint(body);
+		String key = request.getRequestURI() + (request.getQueryString() == null ? "" : "?" + request.getQueryString())
+				+ " " + idempotencyKey;
+
+		while (true) {
+			IdempotentResponse stored = store.get(key);
+			if (stored != null) {
+				replay(stored, fingerprint, request, response);
+				return;
+			}
+			CompletableFuture<IdempotentResponse> execution = new CompletableFuture<>();
+			CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(key, execution);
+			if (running == null) {
+				execute(key, fingerprint, new CachedBodyRequest(request, body), response, filterChain, execution);
+				return;
+			}
+			IdempotentResponse result;
+			try {
+				result = running.get(waitMillis, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				writeError(request, response, HttpStatus.CONFLICT,
+						"A request with " + HEADER + " " + idempotencyKey + " is still being processed.");
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ServletException("Interrupted while waiting for request " + key, e);
+			} catch (ExecutionException e) {
+				throw new ServletException(e.getCause());
+			}
+			if (result != null) {
+				replay(result, fingerprint, request, response);
+				return;
+			}
+			// the first request failed and stored nothing, so this one is run
+		}
+	}
+
+	private void execute(String key, String fingerprint, HttpServletRequest request, HttpServletResponse response,
+			FilterChain filterChain, CompletableFuture<IdempotentResponse> execution)
+			throws ServletException, IOException {
+		IdempotentResponse result = null;
+		ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+		try {
+			// the previous holder of the key may have stored its response just
+			// before this request got to run
+			result = store.get(key);
+			if (result != null) {
+				replay(result, fingerprint, request, response);
+				return;
+			}
+			filterChain.doFilter(request, responseWrapper);
+			int status = responseWrapper.getStatus();
+			if (status >= 200 && status < 300) {
+				result = new IdempotentResponse(fingerprint, status, responseWrapper.getContentType(),
+						responseWrapper.getHeader(HttpHeaders.LOCATION), responseWrapper.getContentAsByteArray());
+				store.put(key, result);
+			}
+		} finally {
+			inFlight.remove(key, execution);
+			execution.complete(result);
+			responseWrapper.copyBodyToResponse();
+		}
+	}
+
+	private void replay(IdempotentResponse stored, String fingerprint, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		if (!stored.getFingerprint().equals(fingerprint)) {
+			writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " " + request.getHeader(HEADER)
+					+ " was already used for a request with a different body.");
+			return;
+		}
+		response.setStatus(stored.getStatus());
+		if (stored.getContentType() != null) {
+			response.setContentType(stored.getContentType());
+		}
+		if (stored.getLocation() != null) {
+			response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+		}
+		response.setHeader(REPLAYED_HEADER, "true");
+		response.setContentLength(stored.getBody().length);
+		response.getOutputStream().write(stored.getBody());
+	}
+
+	private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+			String message) throws IOException {
+		response.setStatus(status.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(),
+				new ExceptionResponse(message, "uri=" + request.getRequestURI()));
+	}
+
+	private static String fingerprint(byte[] body) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+			return String.format("%064x", new BigInteger(1, digest));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Serves the request body from the bytes already read for the fingerprint.
+	 */
+	private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+		private final byte[] body;
+
+		private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+			super(request);
+			this.body = body;
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			ByteArrayInputStream input = new ByteArrayInputStream(body);
+			return new ServletInputStream() {
+
+				@Override
+				public boolean isFinished() {
+					return input.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				@Override
+				public void setReadListener(ReadListener readListener) {
+					throw new UnsupportedOperationException();
+				}
+
+				@Override
+				public int read() {
+					return input.read();
+				}
+
+				@Override
+				public int read(byte[] buffer, int offset, int length) {
+					return input.read(buffer, offset, length);
+				}
+			};
+		}
+
+		@Override
+		public BufferedReader getReader() {
+			Charset charset = getCharacterEncoding() == null ? StandardCharsets.UTF_8
+					: Charset.forName(getCharacterEncoding());
+			return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package com.company.ecommerce.idempotency;
+
+/**
+ * Keeps the responses of requests sent with an Idempotency-Key for a limited
+ * time. Selected with ecommerce.idempotency.storage: memory (the default)
+ * keeps them in this node only, database shares them between nodes.
+ */
+public interface IdempotencyStore {
+
+	/**
+	 * Returns the unexpired response stored for the key, or null.
+	 */
+	IdempotentResponse get(String key);
+
+	void put(String key, IdempotentResponse response);
+}
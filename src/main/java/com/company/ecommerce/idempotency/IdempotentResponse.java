@@ -0,0 +1,42 @@
+package com.company.ecommerce.idempotency;
+
+/**
+ * A completed response kept for replay, with the fingerprint of the request
+ * body that produced it.
+ */
+public class IdempotentResponse {
+
+	private final String fingerprint;
+	private final int status;
+	private final String contentType;
+	private final String location;
+	private final byte[] body;
+
+	public IdempotentResponse(String fingerprint, int status, String contentType, String location, byte[] body) {
+		this.fingerprint = fingerprint;
+		this.status = status;
+		this.contentType = contentType;
+		this.location = location;
+		this.body = body;
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+}
@@ -0,0 +1,88 @@
+package com.company.ecommerce.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps at most max-entries responses, dropping the oldest first once full,
+ * each for ttl-seconds.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.idempotency.storage", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final LinkedHashMap<String, StoredResponse> entries;
+
+	public InMemoryIdempotencyStore(@Value("${ecommerce.idempotency.max-entries:10000}") int maxEntries,
+			@Value("${ecommerce.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+		this.maxEntries = maxEntries;
+		this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+		this.entries = new LinkedHashMap<String, StoredResponse>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+				return size() > InMemoryIdempotencyStore.this.maxEntries;
+			}
+		};
+	}
+
+	@Override
+	public IdempotentResponse get(String key) {
+		synchronized (entries) {
+			StoredResponse stored = entries.get(key);
+			if (stored == null) {
+				return null;
+			}
+			if (stored.expiresAt - System.nanoTime() > 0) {
+				return stored.response;
+			}
+			entries.remove(key);
+			return null;
+		}
+	}
+
+	@Override
+	public void put(String key, IdempotentResponse response) {
+		long now = System.nanoTime();
+		synchronized (entries) {
+			StoredResponse stored = entries.get(key);
+			// like the database store, an unexpired response is never replaced
+			if (stored == null || stored.expiresAt - now <= 0) {
+				entries.put(key, new StoredResponse(response, now + ttlNanos));
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${ecommerce.idempotency.cleanup-interval-ms:60000}")
+	public void evictExpired() {
+		long now = System.nanoTime();
+		synchronized (entries) {
+			Iterator<StoredResponse> iterator = entries.values().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().expiresAt - now <= 0) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	private static final class StoredResponse {
+		private final IdempotentResponse response;
+		private final long expiresAt;
+
+		private StoredResponse(IdempotentResponse response, long expiresAt) {
+			this.response = response;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.company.ecommerce.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Item count and subtotal of a user's cart, kept up to date by the cart store
+ * as lines change so the totals can be read without loading the cart.
+ */
+@Entity
+@Table(name = "cart_summary")
+public class CartSummary {
+
+	@Id
+	@Column(name = "user_id")
+	private Integer userId;
+
+	@Column(name = "item_count", nullable = false)
+	private long itemCount;
+
+	@Column(name = "subtotal_minor", nullable = false)
+	private long subtotalMinor;
+
+	public CartSummary() {
+	}
+
+	public CartSummary(Integer userId, long itemCount, long subtotalMinor) {
+		this.userId = userId;
+		this.itemCount = itemCount;
+		this.subtotalMinor = subtotalMinor;
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	public long getItemCount() {
+		return itemCount;
+	}
+
+	public void setItemCount(long itemCount) {
+		this.itemCount = itemCount;
+	}
+
+	public long getSubtotalMinor() {
+		return subtotalMinor;
+	}
+
+	public void setSubtotalMinor(long subtotalMinor) {
+		this.subtotalMinor = subtotalMinor;
+	}
+}
@@ -13,6 +13,9 @@ import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+
 @Entity
 @Table(name = "categories")
 public class Category {
@@ -28,6 +31,17 @@ public class Category {
 
 	private @NotBlank String imageUrl;
 
+	/**
+	 * Number of products in this category, maintained by ProductService so
+	 * listings never have to count or load the products collection. Only the
+	 * delta and recount queries of CategoryRepository write it; saving the
+	 * entity leaves the column alone, so a stale copy cannot overwrite a count
+	 * changed since it was read.
+	 */
+	@JsonProperty(access = Access.READ_ONLY)
+	@Column(name = "product_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+	private long productCount;
+
 	@OneToMany(mappedBy = "category", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
 	Set<Product> products;
 
@@ -77,6 +91,14 @@ public class Category {
 		this.imageUrl = imageUrl;
 	}
 
+	public long getProductCount() {
+		return productCount;
+	}
+
+	public void setProductCount(long productCount) {
+		this.productCount = productCount;
+	}
+
 	public Set<Product> getProducts() {
 		return products;
 	}
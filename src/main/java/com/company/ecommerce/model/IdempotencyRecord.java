@@ -0,0 +1,137 @@
+package com.company.ecommerce.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+/**
+ * A response stored by DatabaseIdempotencyStore. Records are only ever
+ * inserted, so saving one never overwrites the response another node stored
+ * for the same key.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+	@Id
+	@Column(name = "idempotency_key", length = 512)
+	private String key;
+
+	@Column(name = "fingerprint", length = 64, nullable = false)
+	private String fingerprint;
+
+	@Column(name = "status", nullable = false)
+	private int status;
+
+	@Column(name = "content_type")
+	private String contentType;
+
+	@Column(name = "location", length = 2048)
+	private String location;
+
+	@Lob
+	@Column(name = "body")
+	private byte[] body;
+
+	@Column(name = "expires_at", nullable = false)
+	private Date expiresAt;
+
+	@Transient
+	private boolean newRecord = true;
+
+	public IdempotencyRecord() {
+	}
+
+	public IdempotencyRecord(String key, String fingerprint, int status, String contentType, String location,
+			byte[] body, Date expiresAt) {
+		this.key = key;
+		this.fingerprint = fingerprint;
+		this.status = status;
+		this.contentType = contentType;
+		this.location = location;
+		this.body = body;
+		this.expiresAt = expiresAt;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		newRecord = false;
+	}
+
+	@Override
+	public String getId() {
+		return key;
+	}
+
+	@Override
+	public boolean isNew() {
+		return newRecord;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public void setKey(String key) {
+		this.key = key;
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public void setFingerprint(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public void setLocation(String location) {
+		this.location = location;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	public void setBody(byte[] body) {
+		this.body = body;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+}
@@ -5,24 +5,31 @@ import java.util.List;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import com.company.ecommerce.dto.order.PlaceOrderDto;
+import com.company.ecommerce.enums.OrderStatus;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_user_created", columnList = "user_id, created_date"))
 public class Order {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+	@SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
 	private Integer id;
 
 	@Column(name = "created_date")
@@ -31,6 +38,10 @@ public class Order {
 	@Column(name = "total_price")
 	private Double totalPrice;
 
+	@Enumerated(EnumType.STRING)
+	@Column(name = "status", length = 16)
+	private OrderStatus status;
+
 	@OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
 	private List<OrderItem> orderItems;
 
@@ -39,6 +50,10 @@ public class Order {
 	@JoinColumn(name = "user_id", referencedColumnName = "id")
 	private User user;
 
+	@JsonIgnore
+	@Version
+	private long version;
+
 	public Order() {
 	}
 
@@ -46,6 +61,7 @@ public class Order {
 		this.user = user;
 		this.createdDate = new Date();
 		this.totalPrice = orderDto.getTotalPrice();
+		this.status = OrderStatus.placed;
 	}
 
 	public List<OrderItem> getOrderItems() {
@@ -80,6 +96,14 @@ public class Order {
 		this.totalPrice = totalPrice;
 	}
 
+	public OrderStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(OrderStatus status) {
+		this.status = status;
+	}
+
 	public User getUser() {
 		return user;
 	}
@@ -87,4 +111,12 @@ public class Order {
 	public void setUser(User user) {
 		this.user = user;
 	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
 }
@@ -0,0 +1,123 @@
+package com.company.ecommerce.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+/**
+ * What the order list shows of a placed order, written in the transaction
+ * that places it so the list is read from this table alone. The id is the
+ * order's; rows created here are always new, so saving one inserts without
+ * looking it up first.
+ */
+@Entity
+@Table(name = "order_summary", indexes = @Index(name = "idx_order_summary_user_created", columnList = "user_id, created_date, order_id"))
+public class OrderSummary implements Persistable<Integer> {
+
+	@Id
+	@Column(name = "order_id")
+	private Integer orderId;
+
+	@Column(name = "user_id", nullable = false)
+	private Integer userId;
+
+	@Column(name = "created_date")
+	private Date createdDate;
+
+	@Column(name = "total_price")
+	private Double totalPrice;
+
+	@Column(name = "item_count", nullable = false)
+	private long itemCount;
+
+	@Column(name = "first_product_name")
+	private String firstProductName;
+
+	@Transient
+	private boolean newSummary = true;
+
+	public OrderSummary() {
+	}
+
+	public OrderSummary(Order order, long itemCount, String firstProductName) {
+		this.orderId = order.getId();
+		this.userId = order.getUser().getId();
+		this.createdDate = order.getCreatedDate();
+		this.totalPrice = order.getTotalPrice();
+		this.itemCount = itemCount;
+		this.firstProductName = firstProductName;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		newSummary = false;
+	}
+
+	@Override
+	public Integer getId() {
+		return orderId;
+	}
+
+	@Override
+	public boolean isNew() {
+		return newSummary;
+	}
+
+	public Integer getOrderId() {
+		return orderId;
+	}
+
+	public void setOrderId(Integer orderId) {
+		this.orderId = orderId;
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	public Date getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(Date createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public Double getTotalPrice() {
+		return totalPrice;
+	}
+
+	public void setTotalPrice(Double totalPrice) {
+		this.totalPrice = totalPrice;
+	}
+
+	public long getItemCount() {
+		return itemCount;
+	}
+
+	public void setItemCount(long itemCount) {
+		this.itemCount = itemCount;
+	}
+
+	public String getFirstProductName() {
+		return firstProductName;
+	}
+
+	public void setFirstProductName(String firstProductName) {
+		this.firstProductName = firstProductName;
+	}
+}
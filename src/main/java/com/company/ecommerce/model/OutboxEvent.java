@@ -0,0 +1,150 @@
+package com.company.ecommerce.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+/**
+ * An event written in the transaction that caused it, waiting to be handed
+ * to the sinks by OutboxRelay. A relay claims an event by setting claimedBy
+ * and claimedUntil; the claim lapses at claimedUntil, so events of a relay
+ * that stopped are picked up again. An event whose publishing failed
+ * max-attempts times is parked by setting deadLetteredAt and is no longer
+ * claimed until it is requeued.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_claimed", columnList = "claimed_until"))
+public class OutboxEvent {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+	@SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+	private Integer id;
+
+	@Column(name = "aggregate_type", length = 32, nullable = false)
+	private String aggregateType;
+
+	@Column(name = "aggregate_id", nullable = false)
+	private Integer aggregateId;
+
+	@Column(name = "event_type", length = 64, nullable = false)
+	private String eventType;
+
+	@Lob
+	@Column(name = "payload", nullable = false)
+	private String payload;
+
+	@Column(name = "created_date", nullable = false)
+	private Date createdDate;
+
+	@Column(name = "claimed_by", length = 36)
+	private String claimedBy;
+
+	@Column(name = "claimed_until")
+	private Date claimedUntil;
+
+	@Column(name = "attempts", nullable = false)
+	private int attempts;
+
+	@Column(name = "dead_lettered_at")
+	private Date deadLetteredAt;
+
+	public OutboxEvent() {
+	}
+
+	public OutboxEvent(String aggregateType, Integer aggregateId, String eventType, String payload) {
+		this.aggregateType = aggregateType;
+		this.aggregateId = aggregateId;
+		this.eventType = eventType;
+		this.payload = payload;
+		this.createdDate = new Date();
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	public String getAggregateType() {
+		return aggregateType;
+	}
+
+	public void setAggregateType(String aggregateType) {
+		this.aggregateType = aggregateType;
+	}
+
+	public Integer getAggregateId() {
+		return aggregateId;
+	}
+
+	public void setAggregateId(Integer aggregateId) {
+		this.aggregateId = aggregateId;
+	}
+
+	public String getEventType() {
+		return eventType;
+	}
+
+	public void setEventType(String eventType) {
+		this.eventType = eventType;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public void setPayload(String payload) {
+		this.payload = payload;
+	}
+
+	public Date getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(Date createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public String getClaimedBy() {
+		return claimedBy;
+	}
+
+	public void setClaimedBy(String claimedBy) {
+		this.claimedBy = claimedBy;
+	}
+
+	public Date getClaimedUntil() {
+		return claimedUntil;
+	}
+
+	public void setClaimedUntil(Date claimedUntil) {
+		this.claimedUntil = claimedUntil;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public Date getDeadLetteredAt() {
+		return deadLetteredAt;
+	}
+
+	public void setDeadLetteredAt(Date deadLetteredAt) {
+		this.deadLetteredAt = deadLetteredAt;
+	}
+}
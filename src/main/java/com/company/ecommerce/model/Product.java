@@ -2,26 +2,35 @@ package com.company.ecommerce.model;
 
 import java.util.List;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 
 import com.company.ecommerce.dto.product.ProductDto;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = { @Index(name = "idx_products_price_id", columnList = "price, id"),
+		@Index(name = "idx_products_name_id", columnList = "name, id"),
+		@Index(name = "idx_products_category_id", columnList = "category_id, id"),
+		@Index(name = "idx_products_category_price_id", columnList = "category_id, price, id"),
+		@Index(name = "idx_products_category_name_id", columnList = "category_id, name, id") })
 public class Product {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+	@SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
 	private Integer id;
 
 	private @NotNull String name;
@@ -29,6 +38,15 @@ public class Product {
 	private @NotNull double price;
 	private @NotNull String description;
 
+	/**
+	 * Units available, null if not tracked. Only ever changed by the
+	 * conditional updates of InventoryService, never by writing the entity, so
+	 * an edit of the product cannot overwrite a concurrent sale.
+	 */
+	@JsonIgnore
+	@Column(name = "stock", updatable = false)
+	private Integer stock;
+
 	@JsonIgnore
 	@ManyToOne(fetch = FetchType.LAZY, optional = false)
 	@JoinColumn(name = "category_id", nullable = false)
@@ -38,6 +56,10 @@ public class Product {
 	@OneToMany(fetch = FetchType.LAZY, mappedBy = "product")
 	private List<Cart> carts;
 
+	@JsonIgnore
+	@Version
+	private long version;
+
 	public Product(ProductDto productDto, Category category) {
 		this.name = productDto.getName();
 		this.imageURL = productDto.getImageURL();
@@ -106,6 +128,22 @@ public class Product {
 		this.category = category;
 	}
 
+	public Integer getStock() {
+		return stock;
+	}
+
+	public void setStock(Integer stock) {
+		this.stock = stock;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
 		return "Product{" + "id=" + id + ", name='" + name + '\'' + ", imageURL='" + imageURL + '\'' + ", price="
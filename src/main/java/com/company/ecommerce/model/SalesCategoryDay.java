@@ -0,0 +1,112 @@
+package com.company.ecommerce.model;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * Units sold and revenue of one category on one day, see SalesRollupService.
+ */
+@Entity
+@Table(name = "sales_category_day")
+@IdClass(SalesCategoryDay.Key.class)
+public class SalesCategoryDay {
+
+	@Id
+	@Temporal(TemporalType.DATE)
+	@Column(name = "sales_date")
+	private Date day;
+
+	@Id
+	@Column(name = "category_id")
+	private Integer categoryId;
+
+	@Column(name = "units", nullable = false)
+	private long units;
+
+	@Column(name = "revenue_minor", nullable = false)
+	private long revenueMinor;
+
+	public SalesCategoryDay() {
+	}
+
+	public SalesCategoryDay(Date day, Integer categoryId, long units, long revenueMinor) {
+		this.day = day;
+		this.categoryId = categoryId;
+		this.units = units;
+		this.revenueMinor = revenueMinor;
+	}
+
+	public Date getDay() {
+		return day;
+	}
+
+	public void setDay(Date day) {
+		this.day = day;
+	}
+
+	public Integer getCategoryId() {
+		return categoryId;
+	}
+
+	public void setCategoryId(Integer categoryId) {
+		this.categoryId = categoryId;
+	}
+
+	public long getUnits() {
+		return units;
+	}
+
+	public void setUnits(long units) {
+		this.units = units;
+	}
+
+	public long getRevenueMinor() {
+		return revenueMinor;
+	}
+
+	public void setRevenueMinor(long revenueMinor) {
+		this.revenueMinor = revenueMinor;
+	}
+
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Date day;
+		private Integer categoryId;
+
+		public Key() {
+		}
+
+		public Key(Date day, Integer categoryId) {
+			this.day = day;
+			this.categoryId = categoryId;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return Objects.equals(day, other.day) && Objects.equals(categoryId, other.categoryId);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(day, categoryId);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.company.ecommerce.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+/**
+ * An outbox event already counted in the sales rollups, so a redelivery of it
+ * is not counted again.
+ */
+@Entity
+@Table(name = "sales_rollup_events", indexes = @Index(name = "idx_sales_rollup_events_applied", columnList = "applied_at"))
+public class SalesRollupEvent implements Persistable<Integer> {
+
+	@Id
+	@Column(name = "event_id")
+	private Integer eventId;
+
+	@Column(name = "applied_at", nullable = false)
+	private Date appliedAt;
+
+	@Transient
+	private boolean newEvent = true;
+
+	public SalesRollupEvent() {
+	}
+
+	public SalesRollupEvent(Integer eventId, Date appliedAt) {
+		this.eventId = eventId;
+		this.appliedAt = appliedAt;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		newEvent = false;
+	}
+
+	@Override
+	public Integer getId() {
+		return eventId;
+	}
+
+	@Override
+	public boolean isNew() {
+		return newEvent;
+	}
+
+	public Integer getEventId() {
+		return eventId;
+	}
+
+	public void setEventId(Integer eventId) {
+		this.eventId = eventId;
+	}
+
+	public Date getAppliedAt() {
+		return appliedAt;
+	}
+
+	public void setAppliedAt(Date appliedAt) {
+		this.appliedAt = appliedAt;
+	}
+}
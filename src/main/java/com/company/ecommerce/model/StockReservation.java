@@ -0,0 +1,88 @@
+package com.company.ecommerce.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+/**
+ * Stock taken off a product for a pending order, returned to the product if
+ * the order is not placed before the reservation expires.
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = { @Index(name = "idx_stock_reservations_order", columnList = "order_id"),
+		@Index(name = "idx_stock_reservations_expires", columnList = "expires_at") })
+public class StockReservation {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservation_seq")
+	@SequenceGenerator(name = "stock_reservation_seq", sequenceName = "stock_reservation_seq", allocationSize = 50)
+	private Integer id;
+
+	@Column(name = "order_id", nullable = false)
+	private Integer orderId;
+
+	@Column(name = "product_id", nullable = false)
+	private Integer productId;
+
+	private int quantity;
+
+	@Column(name = "expires_at", nullable = false)
+	private Date expiresAt;
+
+	public StockReservation() {
+	}
+
+	public StockReservation(Integer orderId, Integer productId, int quantity, Date expiresAt) {
+		this.orderId = orderId;
+		this.productId = productId;
+		this.quantity = quantity;
+		this.expiresAt = expiresAt;
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	public Integer getOrderId() {
+		return orderId;
+	}
+
+	public void setOrderId(Integer orderId) {
+		this.orderId = orderId;
+	}
+
+	public Integer getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Integer productId) {
+		this.productId = productId;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+}
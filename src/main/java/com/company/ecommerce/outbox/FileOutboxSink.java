@@ -0,0 +1,55 @@
+package com.company.ecommerce.outbox;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.company.ecommerce.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Appends every event to a file as one line of JSON, for local consumers and
+ * tests. Enabled by setting ecommerce.outbox.sink.file.path.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.outbox.sink.file.path")
+public class FileOutboxSink implements OutboxSink {
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	private final Path path;
+
+	public FileOutboxSink(@Value("${ecommerce.outbox.sink.file.path}") String path) {
+		this.path = Paths.get(path);
+	}
+
+	@Override
+	public synchronized void publish(List<OutboxEvent> events) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND)) {
+			for (OutboxEvent event : events) {
+				ObjectNode line = objectMapper.createObjectNode();
+				line.put("id", event.getId());
+				line.put("eventType", event.getEventType());
+				line.put("aggregateType", event.getAggregateType());
+				line.put("aggregateId", event.getAggregateId());
+				line.put("createdDate", event.getCreatedDate().getTime());
+				line.set("payload", objectMapper.readTree(event.getPayload()));
+				writer.write(objectMapper.writeValueAsString(line));
+				writer.newLine();
+			}
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.company.ecommerce.outbox;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.company.ecommerce.model.OutboxEvent;
+
+/**
+ * Logs every event, for development and testing.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.outbox.sink.log.enabled", havingValue = "true", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LogOutboxSink.class);
+
+	@Override
+	public void publish(List<OutboxEvent> events) {
+		for (OutboxEvent event : events) {
+			LOGGER.info("Outbox event {} {} {} {}: {}", event.getId(), event.getEventType(), event.getAggregateType(),
+					event.getAggregateId(), event.getPayload());
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.company.ecommerce.outbox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.company.ecommerce.dto.outbox.OutboxStatsDto;
+import com.company.ecommerce.model.OutboxEvent;
+import com.company.ecommerce.repository.OutboxEventRepository;
+
+/**
+ * Drains the outbox into the sinks, batch-size events at a time, each batch
+ * in id order. A batch is claimed with a conditional update that only takes
+ * events no other relay holds, so relays on several nodes share the outbox
+ * without waiting on each other's rows. Published events are deleted. When a
+ * sink fails, the batch is left claimed and published again once the claim
+ * lapses after claim-ttl-ms, so later events can be published before it.
+ * Events that failed max-attempts times are dead-lettered: they stay in the
+ * outbox but are no longer published until requeued.
+ */
+@Component
+public class OutboxRelay {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+	@Autowired
+	OutboxEventRepository repository;
+
+	@Autowired(required = false)
+	List<OutboxSink> sinks = Collections.emptyList();
+
+	@Value("${ecommerce.outbox.relay.batch-size:100}")
+	int batchSize;
+
+	@Value("${ecommerce.outbox.relay.max-batches-per-run:50}")
+	int maxBatchesPerRun;
+
+	@Value("${ecommerce.outbox.relay.claim-ttl-ms:60000}")
+	long claimTtlMillis;
+
+	@Value("${ecommerce.outbox.relay.max-attempts:10}")
+	int maxAttempts;
+
+	private long publishedEvents;
+	private long publishingMillis;
+	private long failedBatches;
+	private Date lastRunAt;
+	private long lastRunEvents;
+	private long lastRunMillis;
+
+	@Scheduled(fixedDelayString = "${ecommerce.outbox.relay.interval-ms:1000}")
+	public void relay() {
+		Date startedAt = new Date();
+		long start = System.nanoTime();
+		long published = 0;
+		long failed = 0;
+		for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+			Date now = new Date();
+			List<Integer> ids = repository.findUnclaimedIds(now, PageRequest.of(0, batchSize));
+			if (ids.isEmpty()) {
+				break;
+			}
+			String claim = UUID.randomUUID().toString();
+			if (repository.claim(ids, claim, new Date(now.getTime() + claimTtlMillis), now) == 0) {
+				// all taken by another relay meanwhile
+				continue;
+			}
+			List<OutboxEvent> events = repository.findAllByClaimedByOrderByIdAsc(claim);
+			List<Integer> claimedIds = new ArrayList<>(events.size());
+			for (OutboxEvent event : events) {
+				claimedIds.add(event.getId());
+			}
+			try {
+				for (OutboxSink sink : sinks) {
+					sink.publish(events);
+				}
+			} catch (Exception e) {
+				repository.addAttempt(claimedIds);
+				failed++;
+				int deadLettered = repository.deadLetter(claimedIds, maxAttempts, new Date());
+				if (deadLettered > 0) {
+					LOGGER.error("Publishing outbox events {} to {} failed {} times, dead-lettered {} of them",
+							claimedIds.get(0), claimedIds.get(claimedIds.size() - 1), maxAttempts, deadLettered, e);
+				} else {
+					LOGGER.warn("Publishing outbox events {} to {} failed, retrying in {} ms", claimedIds.get(0),
+							claimedIds.get(claimedIds.size() - 1), claimTtlMillis, e);
+				}
+				break;
+			}
+			repository.deleteByIds(claimedIds);
+			published += events.size();
+			if (ids.size() < batchSize) {
+				break;
+			}
+		}
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		synchronized (this) {
+			publishedEvents += published;
+			if (published > 0) {
+				publishingMillis += millis;
+			}
+			failedBatches += failed;
+			lastRunAt = startedAt;
+			lastRunEvents = published;
+			lastRunMillis = millis;
+		}
+		if (published > 0) {
+			LOGGER.debug("Relayed {} outbox events in {} ms", published, millis);
+		}
+	}
+
+	/**
+	 * Hands the dead-lettered events back to the relay, typically once the
+	 * failing sink or payload has been fixed.
+	 */
+	public int requeueDeadLetters() {
+		int requeued = repository.requeueDeadLetters();
+		LOGGER.info("Requeued {} dead-lettered outbox events", requeued);
+		return requeued;
+	}
+
+	public OutboxStatsDto getStats() {
+		long pending = repository.countByDeadLetteredAtIsNull();
+		long deadLettered = repository.countByDeadLetteredAtIsNotNull();
+		Date oldest = repository.findOldestCreatedDate();
+		long lagMillis = oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.getTime());
+		synchronized (this) {
+			return new OutboxStatsDto(pending, deadLettered, lagMillis, publishedEvents, publishingMillis,
+					failedBatches, lastRunAt, lastRunEvents, lastRunMillis);
+		}
+	}
+}
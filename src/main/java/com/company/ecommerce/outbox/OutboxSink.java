@@ -0,0 +1,21 @@
+package com.company.ecommerce.outbox;
+
+import java.util.List;
+
+import com.company.ecommerce.model.OutboxEvent;
+
+/**
+ * Receives the events relayed from the outbox. Every sink bean is handed every
+ * batch. Delivery is at least once: when any sink throws, the whole batch is
+ * handed to all sinks again later, so sinks should ignore event ids they have
+ * already seen. Batches are not ordered among each other: later events are
+ * published while a failed batch waits for its retry, and relays on several
+ * nodes publish at the same time.
+ */
+public interface OutboxSink {
+
+	/**
+	 * Publishes a batch of events. Within the batch, events are in id order.
+	 */
+	void publish(List<OutboxEvent> events) throws Exception;
+}
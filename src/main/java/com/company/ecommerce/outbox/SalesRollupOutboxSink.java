@@ -0,0 +1,26 @@
+package com.company.ecommerce.outbox;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.company.ecommerce.model.OutboxEvent;
+import com.company.ecommerce.service.SalesRollupService;
+
+/**
+ * Adds the orders of each batch of events to the sales rollups.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.analytics.rollups.enabled", havingValue = "true", matchIfMissing = true)
+public class SalesRollupOutboxSink implements OutboxSink {
+
+	@Autowired
+	SalesRollupService salesRollupService;
+
+	@Override
+	public void publish(List<OutboxEvent> events) throws Exception {
+		salesRollupService.apply(events);
+	}
+}
@@ -0,0 +1,122 @@
+package com.company.ecommerce.pricing;
+
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.company.ecommerce.model.Cart;
+
+/**
+ * Money arithmetic for carts and orders. Amounts are counted in long minor
+ * units of the configured currency (cents for USD), so sums are exact and
+ * totals are computed without creating any objects.
+ * <p>
+ * Rounding rules: a price, stored as a double, is converted to minor units at
+ * the currency's scale with the configured rounding mode, HALF_UP or
+ * HALF_EVEN. Prices are decimal amounts that doubles only approximate, so a
+ * value within 1e-9 of a half minor unit counts as exactly half. A line total
+ * is the converted unit price times the quantity and a cart or order total is
+ * the sum of its line totals; neither is rounded again.
+ * <p>
+ * Rebuilds that total prices in one SQL statement use
+ * PRODUCT_PRICE_MINOR_UNITS_SQL or ITEM_PRICE_MINOR_UNITS_SQL, which repeat
+ * toMinorUnits in SQL and bind :factor and :halfEven from getFactor and
+ * isHalfEven, so both paths round alike.
+ */
+@Component
+public class PriceCalculator {
+
+	private static final double HALF_TOLERANCE = 1e-9;
+
+	/**
+	 * toMinorUnits of products.price, aliased p.
+	 */
+	public static final String PRODUCT_PRICE_MINOR_UNITS_SQL = minorUnitsSql("p.price");
+
+	/**
+	 * toMinorUnits of orderitems.price, aliased i.
+	 */
+	public static final String ITEM_PRICE_MINOR_UNITS_SQL = minorUnitsSql("i.price");
+
+	private final Currency currency;
+	private final int scale;
+	private final long factor;
+	private final RoundingMode roundingMode;
+
+	public PriceCalculator(@Value("${ecommerce.pricing.currency:USD}") String currencyCode,
+			@Value("${ecommerce.pricing.rounding:HALF_UP}") RoundingMode roundingMode) {
+		if (roundingMode != RoundingMode.HALF_UP && roundingMode != RoundingMode.HALF_EVEN) {
+			throw new IllegalArgumentException("Unsupported rounding mode " + roundingMode + ".");
+		}
+		this.currency = Currency.getInstance(currencyCode);
+		this.scale = Math.max(0, currency.getDefaultFractionDigits());
+		long factor = 1;
+		for (int i = 0; i < scale; i++) {
+			factor *= 10;
+		}
+		this.factor = factor;
+		this.roundingMode = roundingMode;
+	}
+
+	public long toMinorUnits(double amount) {
+		double scaled = Math.abs(amount) * factor;
+		double whole = Math.floor(scaled);
+		double fraction = scaled - whole;
+		long units = (long) whole;
+		if (fraction > 0.5 + HALF_TOLERANCE || (fraction >= 0.5 - HALF_TOLERANCE
+				&& (roundingMode == RoundingMode.HALF_UP || (units & 1) == 1))) {
+			units++;
+		}
+		return amount < 0 ? -units : units;
+	}
+
+	public double toMajorUnits(long minorUnits) {
+		return (double) minorUnits / factor;
+	}
+
+	public long lineTotal(double unitPrice, int quantity) {
+		return Math.multiplyExact(toMinorUnits(unitPrice), (long) quantity);
+	}
+
+	/**
+	 * Returns the total of the cart lines in minor units.
+	 */
+	public long total(List<Cart> lines) {
+		long total = 0;
+		for (int i = 0; i < lines.size(); i++) {
+			Cart line = lines.get(i);
+			total = Math.addExact(total, lineTotal(line.getProduct().getPrice(), line.getQuantity()));
+		}
+		return total;
+	}
+
+	public Currency getCurrency() {
+		return currency;
+	}
+
+	public int getScale() {
+		return scale;
+	}
+
+	public long getFactor() {
+		return factor;
+	}
+
+	public boolean isHalfEven() {
+		return roundingMode == RoundingMode.HALF_EVEN;
+	}
+
+	/**
+	 * toMinorUnits of the price column in SQL, binding :factor and :halfEven.
+	 */
+	private static String minorUnitsSql(String column) {
+		String scaled = "abs(" + column + ") * :factor";
+		String fraction = scaled + " - floor(" + scaled + ")";
+		return "cast(sign(" + column + ") * (floor(" + scaled + ") + case when " + fraction + " > 0.5 + "
+				+ HALF_TOLERANCE + " or (" + fraction + " >= 0.5 - " + HALF_TOLERANCE
+				+ " and (:halfEven = false or mod(floor(" + scaled + "), 2) = 1)) then 1 else 0 end) as bigint)";
+	}
+}
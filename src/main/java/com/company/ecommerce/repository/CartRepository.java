@@ -1,17 +1,67 @@
 package com.company.ecommerce.repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.Product;
 import com.company.ecommerce.model.User;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Integer> {
 
+	@EntityGraph(attributePaths = "product")
 	List<Cart> findAllByUserOrderByCreatedDateDesc(User user);
 
-	List<Cart> deleteByUser(User user);
+	@EntityGraph(attributePaths = "product")
+	List<Cart> findAllByUserId(Integer userId);
+
+	Optional<Cart> findByUserAndProduct(User user, Product product);
+
+	Optional<Cart> findByIdAndUserId(Integer id, Integer userId);
+
+	/**
+	 * Adds to the quantity of an existing cart line in one statement, so
+	 * concurrent adds cannot lose updates. The version is bumped as well, so
+	 * readers of the old quantity fail their version check. Returns 0 if the
+	 * user has no line for the product yet.
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Cart c set c.quantity = c.quantity + :quantity, c.createdDate = :now, c.version = c.version + 1 where c.user.id = :userId and c.product.id = :productId")
+	int addQuantity(@Param("userId") Integer userId, @Param("productId") Integer productId,
+			@Param("quantity") int quantity, @Param("now") Date now);
+
+	/**
+	 * Returns the ids of users after the given one whose newest cart line is
+	 * older than the cutoff, in id order.
+	 */
+	@Query("select c.user.id from Cart c where c.user.id > :afterUserId group by c.user.id having max(c.createdDate) < :cutoff order by c.user.id")
+	List<Integer> findIdleUserIds(@Param("afterUserId") Integer afterUserId, @Param("cutoff") Date cutoff,
+			Pageable pageable);
+
+	@Transactional
+	@Modifying
+	@Query("delete from Cart c where c.user.id = :userId")
+	int deleteByUserId(@Param("userId") Integer userId);
+
+	/**
+	 * Deletes the carts of the given users that are still idle, leaving carts
+	 * that were touched since the cutoff alone.
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from Cart c where c.user.id in :userIds and c.user.id not in (select a.user.id from Cart a where a.user.id in :userIds and a.createdDate >= :cutoff)")
+	int deleteIdleByUserIds(@Param("userIds") Collection<Integer> userIds, @Param("cutoff") Date cutoff);
 }
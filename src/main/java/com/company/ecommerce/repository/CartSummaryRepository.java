@@ -0,0 +1,45 @@
+package com.company.ecommerce.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.company.ecommerce.model.CartSummary;
+
+@Repository
+public interface CartSummaryRepository extends JpaRepository<CartSummary, Integer> {
+
+	/**
+	 * Returns 0 if the user has no summary row yet.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update CartSummary s set s.itemCount = s.itemCount + :items, s.subtotalMinor = s.subtotalMinor + :amount where s.userId = :userId")
+	int addToSummary(@Param("userId") Integer userId, @Param("items") long items, @Param("amount") long amount);
+
+	/**
+	 * Moves the subtotal of every cart holding the product by the price change
+	 * times the quantity held.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update CartSummary s set s.subtotalMinor = s.subtotalMinor + :delta * (select sum(c.quantity) from Cart c where c.user.id = s.userId and c.product.id = :productId) where s.userId in (select c.user.id from Cart c where c.product.id = :productId)")
+	int applyPriceChange(@Param("productId") Integer productId, @Param("delta") long delta);
+
+	/**
+	 * Deletes the summaries of the given users that have no cart lines left.
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from CartSummary s where s.userId in :userIds and s.userId not in (select c.user.id from Cart c where c.user.id in :userIds)")
+	int deleteEmptyByUserIds(@Param("userIds") Collection<Integer> userIds);
+
+	@Modifying
+	@Query("delete from CartSummary s where s.userId between :fromId and :toId")
+	int deleteByUserIdBetween(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+}
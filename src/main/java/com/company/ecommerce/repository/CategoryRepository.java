@@ -1,12 +1,32 @@
 package com.company.ecommerce.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.company.ecommerce.dto.category.CategorySummaryDto;
 import com.company.ecommerce.model.Category;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Integer> {
 
 	Category findByCategoryName(String categoryName);
+
+	@Query("select new com.company.ecommerce.dto.category.CategorySummaryDto(c.id, c.categoryName, c.imageUrl, c.productCount) from Category c order by c.categoryName asc")
+	List<CategorySummaryDto> findSummaries();
+
+	@Transactional
+	@Modifying
+	@Query("update Category c set c.productCount = c.productCount + :delta where c.id = :id")
+	int addToProductCount(@Param("id") Integer id, @Param("delta") long delta);
+
+	@Transactional
+	@Modifying
+	@Query("update Category c set c.productCount = (select count(p) from Product p where p.category.id = c.id)")
+	int recountProducts();
 }
@@ -0,0 +1,26 @@
+package com.company.ecommerce.repository;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.company.ecommerce.model.IdempotencyRecord;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+	@Transactional
+	@Modifying
+	@Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+	int deleteExpired(@Param("now") Date now);
+
+	@Transactional
+	@Modifying
+	@Query("delete from IdempotencyRecord r where r.key = :key and r.expiresAt < :now")
+	int deleteExpiredKey(@Param("key") String key, @Param("now") Date now);
+}
@@ -1,15 +1,67 @@
 package com.company.ecommerce.repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.company.ecommerce.enums.OrderStatus;
 import com.company.ecommerce.model.Order;
 import com.company.ecommerce.model.User;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer> {
 
-	List<Order> findAllByUserOrderByCreatedDateDesc(User user);
+	/**
+	 * Ids of the user's first orders, newest first. Only ids are selected so
+	 * the page can be limited in the database; the orders are then loaded with
+	 * findAllWithItemsByIdIn.
+	 */
+	@Query("select o.id from Order o where o.user = :user order by o.createdDate desc, o.id desc")
+	List<Integer> findIdsByUser(@Param("user") User user, Pageable pageable);
+
+	/**
+	 * Ids of the user's orders placed before the given one, keyset on created
+	 * date and id.
+	 */
+	@Query("select o.id from Order o where o.user = :user and (o.createdDate < :createdDate or (o.createdDate = :createdDate and o.id < :id)) order by o.createdDate desc, o.id desc")
+	List<Integer> findNextIdsByUser(@Param("user") User user, @Param("createdDate") Date createdDate,
+			@Param("id") Integer id, Pageable pageable);
+
+	/**
+	 * Loads the orders with their items and the items' products in one query.
+	 */
+	@EntityGraph(attributePaths = { "orderItems", "orderItems.product" })
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+	@Query("select distinct o from Order o where o.id in :ids order by o.createdDate desc, o.id desc")
+	List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Integer> ids);
+
+	List<Order> findAllByStatus(OrderStatus status);
+
+	@Query("select min(o.id) from Order o")
+	Integer findMinId();
+
+	@Query("select max(o.id) from Order o")
+	Integer findMaxId();
+
+	/**
+	 * Moves the order from the expected status to the new one. Returns 0 if the
+	 * order is no longer in the expected status.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update Order o set o.status = :status, o.version = o.version + 1 where o.id = :id and o.status = :expected")
+	int updateStatus(@Param("id") Integer id, @Param("expected") OrderStatus expected,
+			@Param("status") OrderStatus status);
 }
@@ -0,0 +1,50 @@
+package com.company.ecommerce.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.company.ecommerce.dto.order.OrderSummaryDto;
+import com.company.ecommerce.model.OrderSummary;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Integer> {
+
+	String SELECT_ORDER_SUMMARY_DTO = "select new com.company.ecommerce.dto.order.OrderSummaryDto(s.orderId, s.createdDate, s.totalPrice, s.itemCount, s.firstProductName) from OrderSummary s";
+
+	@Query(SELECT_ORDER_SUMMARY_DTO + " where s.userId = :userId order by s.createdDate desc, s.orderId desc")
+	List<OrderSummaryDto> findDtosByUserId(@Param("userId") Integer userId, Pageable pageable);
+
+	/**
+	 * Summaries of the user's orders placed before the given one, keyset on
+	 * created date and order id.
+	 */
+	@Query(SELECT_ORDER_SUMMARY_DTO
+			+ " where s.userId = :userId and (s.createdDate < :createdDate or (s.createdDate = :createdDate and s.orderId < :orderId)) order by s.createdDate desc, s.orderId desc")
+	List<OrderSummaryDto> findNextDtosByUserId(@Param("userId") Integer userId,
+			@Param("createdDate") Date createdDate, @Param("orderId") Integer orderId, Pageable pageable);
+
+	@Modifying
+	@Query("delete from OrderSummary s where s.orderId between :fromId and :toId")
+	int deleteByOrderIdBetween(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+
+	/**
+	 * Writes the summaries of the placed orders in the id range from the order
+	 * tables. The first product is that of the order's first item. Orders whose
+	 * summary was written by a checkout meanwhile are skipped.
+	 */
+	@Modifying
+	@Query(value = "insert into order_summary (order_id, user_id, created_date, total_price, item_count, first_product_name) "
+			+ "select o.id, o.user_id, o.created_date, o.total_price, "
+			+ "(select coalesce(sum(i.quantity), 0) from orderitems i where i.order_id = o.id), "
+			+ "(select p.name from orderitems i join products p on p.id = i.product_id where i.order_id = o.id order by i.id limit 1) "
+			+ "from orders o where o.id between :fromId and :toId and (o.status is null or o.status = 'placed') "
+			+ "and not exists (select 1 from order_summary s where s.order_id = o.id)", nativeQuery = true)
+	int insertSummariesFromOrders(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+}
@@ -0,0 +1,68 @@
+package com.company.ecommerce.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.company.ecommerce.model.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Integer> {
+
+	@Query("select e.id from OutboxEvent e where e.deadLetteredAt is null and (e.claimedUntil is null or e.claimedUntil < :now) order by e.id asc")
+	List<Integer> findUnclaimedIds(@Param("now") Date now, Pageable pageable);
+
+	/**
+	 * Claims those of the events that are still unclaimed. Events claimed by
+	 * another relay in the meantime are skipped rather than waited for.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update OutboxEvent e set e.claimedBy = :claim, e.claimedUntil = :until where e.id in :ids and e.deadLetteredAt is null and (e.claimedUntil is null or e.claimedUntil < :now)")
+	int claim(@Param("ids") Collection<Integer> ids, @Param("claim") String claim, @Param("until") Date until,
+			@Param("now") Date now);
+
+	List<OutboxEvent> findAllByClaimedByOrderByIdAsc(String claimedBy);
+
+	@Transactional
+	@Modifying
+	@Query("delete from OutboxEvent e where e.id in :ids")
+	int deleteByIds(@Param("ids") Collection<Integer> ids);
+
+	@Transactional
+	@Modifying
+	@Query("update OutboxEvent e set e.attempts = e.attempts + 1 where e.id in :ids")
+	int addAttempt(@Param("ids") Collection<Integer> ids);
+
+	/**
+	 * Parks those of the events that have failed maxAttempts times.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update OutboxEvent e set e.deadLetteredAt = :now, e.claimedBy = null, e.claimedUntil = null where e.id in :ids and e.attempts >= :maxAttempts")
+	int deadLetter(@Param("ids") Collection<Integer> ids, @Param("maxAttempts") int maxAttempts,
+			@Param("now") Date now);
+
+	/**
+	 * Hands every parked event back to the relay with a fresh count of attempts.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update OutboxEvent e set e.deadLetteredAt = null, e.attempts = 0 where e.deadLetteredAt is not null")
+	int requeueDeadLetters();
+
+	long countByDeadLetteredAtIsNull();
+
+	long countByDeadLetteredAtIsNotNull();
+
+	@Query("select min(e.createdDate) from OutboxEvent e where e.deadLetteredAt is null")
+	Date findOldestCreatedDate();
+}
@@ -1,11 +1,95 @@
 package com.company.ecommerce.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.company.ecommerce.dto.product.ProductDto;
 import com.company.ecommerce.model.Product;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer> {
 
+	/**
+	 * Selects only the columns of ProductDto, so listings create neither managed
+	 * entities nor category proxies.
+	 */
+	String SELECT_PRODUCT_DTO = "select new com.company.ecommerce.dto.product.ProductDto(p.id, p.name, p.imageURL, p.price, p.description, p.category.id) from Product p";
+
+	int STREAM_FETCH_SIZE = 500;
+
+	List<Product> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+	/**
+	 * Pairs of product id and category id of the given products.
+	 */
+	@Query("select p.id, p.category.id from Product p where p.id in :ids")
+	List<Object[]> findCategoryIdsByIdIn(@Param("ids") Collection<Integer> ids);
+
+	@Query("select p.stock from Product p where p.id = :id")
+	Integer findStockById(@Param("id") Integer id);
+
+	@Transactional
+	@Modifying
+	@Query("update Product p set p.stock = p.stock + :quantity where p.id = :id and p.stock is not null")
+	int returnStock(@Param("id") Integer id, @Param("quantity") int quantity);
+
+	/**
+	 * Adds to (or, with a negative quantity, removes from) the stock, starting
+	 * to track it if it was not. Returns 0 if that would leave less than none.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update Product p set p.stock = coalesce(p.stock, 0) + :quantity where p.id = :id and coalesce(p.stock, 0) + :quantity >= 0")
+	int addStock(@Param("id") Integer id, @Param("quantity") int quantity);
+
+	/**
+	 * Streams the whole catalog over a single cursor. Must be consumed inside a
+	 * transaction and closed afterwards.
+	 */
+	@QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true") })
+	@Query("select p from Product p order by p.id asc")
+	Stream<Product> streamAllOrderById();
+
+	@Query(SELECT_PRODUCT_DTO)
+	List<ProductDto> findDtos(Pageable pageable);
+
+	@Query(SELECT_PRODUCT_DTO + " where p.id > :id order by p.id asc")
+	List<ProductDto> findNextDtosById(@Param("id") Integer id, Pageable pageable);
+
+	@Query(SELECT_PRODUCT_DTO
+			+ " where p.price > :price or (p.price = :price and p.id > :id) order by p.price asc, p.id asc")
+	List<ProductDto> findNextDtosByPrice(@Param("price") double price, @Param("id") Integer id, Pageable pageable);
+
+	@Query(SELECT_PRODUCT_DTO + " where p.name > :name or (p.name = :name and p.id > :id) order by p.name asc, p.id asc")
+	List<ProductDto> findNextDtosByName(@Param("name") String name, @Param("id") Integer id, Pageable pageable);
+
+	@Query(SELECT_PRODUCT_DTO + " where p.category.id = :categoryId")
+	List<ProductDto> findDtosByCategoryId(@Param("categoryId") Integer categoryId, Pageable pageable);
+
+	@Query(SELECT_PRODUCT_DTO + " where p.category.id = :categoryId and p.id > :id order by p.id asc")
+	List<ProductDto> findNextDtosByCategoryIdAndId(@Param("categoryId") Integer categoryId, @Param("id") Integer id,
+			Pageable pageable);
+
+	@Query(SELECT_PRODUCT_DTO + " where p.category.id = :categoryId"
+			+ " and (p.price > :price or (p.price = :price and p.id > :id)) order by p.price asc, p.id asc")
+	List<ProductDto> findNextDtosByCategoryIdAndPrice(@Param("categoryId") Integer categoryId,
+			@Param("price") double price, @Param("id") Integer id, Pageable pageable);
+
+	@Query(SELECT_PRODUCT_DTO + " where p.category.id = :categoryId"
+			+ " and (p.name > :name or (p.name = :name and p.id > :id)) order by p.name asc, p.id asc")
+	List<ProductDto> findNextDtosByCategoryIdAndName(@Param("categoryId") Integer categoryId,
+			@Param("name") String name, @Param("id") Integer id, Pageable pageable);
 }
@@ -0,0 +1,40 @@
+package com.company.ecommerce.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.company.ecommerce.model.SalesCategoryDay;
+
+@Repository
+public interface SalesCategoryDayRepository extends JpaRepository<SalesCategoryDay, SalesCategoryDay.Key> {
+
+	/**
+	 * Returns 0 if there is no row for the category and day yet.
+	 */
+	@Modifying
+	@Query("update SalesCategoryDay s set s.units = s.units + :units, s.revenueMinor = s.revenueMinor + :revenue where s.day = :day and s.categoryId = :categoryId")
+	int addSales(@Param("day") Date day, @Param("categoryId") Integer categoryId, @Param("units") long units,
+			@Param("revenue") long revenue);
+
+	/**
+	 * Units and revenue per category over the days, highest revenue first.
+	 */
+	@Query("select s.categoryId, sum(s.units), sum(s.revenueMinor) from SalesCategoryDay s where s.day between :from and :to group by s.categoryId order by sum(s.revenueMinor) desc, s.categoryId asc")
+	List<Object[]> sumByCategory(@Param("from") Date from, @Param("to") Date to);
+
+	/**
+	 * Units and revenue per day over all categories.
+	 */
+	@Query("select s.day, sum(s.units), sum(s.revenueMinor) from SalesCategoryDay s where s.day between :from and :to group by s.day order by s.day asc")
+	List<Object[]> sumByDay(@Param("from") Date from, @Param("to") Date to);
+
+	@Modifying
+	@Query("delete from SalesCategoryDay s where s.day = :day")
+	int deleteByDay(@Param("day") Date day);
+}
@@ -0,0 +1,34 @@
+package com.company.ecommerce.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.company.ecommerce.model.SalesProductDay;
+
+@Repository
+public interface SalesProductDayRepository extends JpaRepository<SalesProductDay, SalesProductDay.Key> {
+
+	/**
+	 * Returns 0 if there is no row for the product and day yet.
+	 */
+	@Modifying
+	@Query("update SalesProductDay s set s.units = s.units + :units, s.revenueMinor = s.revenueMinor + :revenue where s.day = :day and s.productId = :productId")
+	int addSales(@Param("day") Date day, @Param("productId") Integer productId, @Param("units") long units,
+			@Param("revenue") long revenue);
+
+	/**
+	 * Units and revenue per product over the days, highest revenue first.
+	 */
+	@Query("select s.productId, sum(s.units), sum(s.revenueMinor) from SalesProductDay s where s.day between :from and :to group by s.productId order by sum(s.revenueMinor) desc, s.productId asc")
+	List<Object[]> sumByProduct(@Param("from") Date from, @Param("to") Date to);
+
+	@Modifying
+	@Query("delete from SalesProductDay s where s.day = :day")
+	int deleteByDay(@Param("day") Date day);
+}
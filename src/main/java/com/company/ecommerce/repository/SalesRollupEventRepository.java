@@ -0,0 +1,30 @@
+package com.company.ecommerce.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.company.ecommerce.model.SalesRollupEvent;
+
+@Repository
+public interface SalesRollupEventRepository extends JpaRepository<SalesRollupEvent, Integer> {
+
+	@Query("select e.eventId from SalesRollupEvent e where e.eventId in :eventIds")
+	List<Integer> findEventIdsIn(@Param("eventIds") Collection<Integer> eventIds);
+
+	/**
+	 * Forgets events applied before the cutoff that have left the outbox, so
+	 * can no longer be delivered again.
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from SalesRollupEvent e where e.appliedAt < :cutoff and e.eventId not in (select o.id from OutboxEvent o)")
+	int deletePublishedBefore(@Param("cutoff") Date cutoff);
+}
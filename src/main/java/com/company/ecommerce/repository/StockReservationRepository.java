@@ -0,0 +1,33 @@
+package com.company.ecommerce.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.company.ecommerce.model.StockReservation;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Integer> {
+
+	List<StockReservation> findAllByOrderId(Integer orderId);
+
+	@Query("select distinct r.orderId from StockReservation r where r.expiresAt < :now")
+	List<Integer> findExpiredOrderIds(@Param("now") Date now, Pageable pageable);
+
+	/**
+	 * Returns how many of the reservations were deleted; fewer than given means
+	 * some were already released or confirmed by someone else.
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from StockReservation r where r.id in :ids")
+	int deleteByIds(@Param("ids") Collection<Integer> ids);
+}
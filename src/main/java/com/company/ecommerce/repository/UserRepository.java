@@ -1,6 +1,7 @@
 package com.company.ecommerce.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.company.ecommerce.model.User;
@@ -9,4 +10,10 @@ import com.company.ecommerce.model.User;
 public interface UserRepository extends JpaRepository<User, Integer> {
 
 	User findByEmail(String email);
+
+	@Query("select min(u.id) from User u")
+	Integer findMinId();
+
+	@Query("select max(u.id) from User u")
+	Integer findMaxId();
 }
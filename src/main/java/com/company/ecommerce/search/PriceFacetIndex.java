@@ -0,0 +1,160 @@
+package com.company.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.company.ecommerce.dto.category.PriceBucketDto;
+import com.company.ecommerce.dto.category.PriceFacetDto;
+import com.company.ecommerce.model.Product;
+
+/**
+ * Per category price histogram with count, min and max, kept in memory and
+ * maintained incrementally by ProductService. The bucket bounds are
+ * configured once for all categories.
+ */
+@Component
+public class PriceFacetIndex {
+
+	private final double[] bucketBounds;
+	private final Map<Integer, CategoryFacets> categories = new HashMap<>();
+	private final Map<Integer, IndexedProduct> products = new HashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public PriceFacetIndex(
+			@Value("${ecommerce.facets.price-buckets:10,25,50,100,250,500,1000}") double[] bucketBounds) {
+		this.bucketBounds = bucketBounds.clone();
+		Arrays.sort(this.bucketBounds);
+	}
+
+	/**
+	 * Adds the product to the facets of its category, moving it out of the
+	 * previous category or price bucket if it was indexed before.
+	 */
+	public void index(Product product) {
+		IndexedProduct indexedProduct = new IndexedProduct(product.getCategory().getId(), product.getPrice());
+		lock.writeLock().lock();
+		try {
+			removeProduct(product.getId());
+			products.put(product.getId(), indexedProduct);
+			categories.computeIfAbsent(indexedProduct.categoryId, id -> new CategoryFacets(bucketBounds.length + 1))
+					.add(bucket(indexedProduct.price), indexedProduct.price);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Integer productId) {
+		lock.writeLock().lock();
+		try {
+			removeProduct(productId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			categories.clear();
+			products.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the price facets of the category, or null if no product of that
+	 * category is indexed.
+	 */
+	public PriceFacetDto getFacets(Integer categoryId) {
+		lock.readLock().lock();
+		try {
+			CategoryFacets facets = categories.get(categoryId);
+			if (facets == null) {
+				return null;
+			}
+			return new PriceFacetDto(categoryId, facets.count, facets.prices.firstKey(), facets.prices.lastKey(),
+					getBuckets(facets.bucketCounts));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the facets of a category without products: every bucket empty
+	 * and no min or max.
+	 */
+	public PriceFacetDto getEmptyFacets(Integer categoryId) {
+		return new PriceFacetDto(categoryId, 0, null, null, getBuckets(new long[bucketBounds.length + 1]));
+	}
+
+	private List<PriceBucketDto> getBuckets(long[] bucketCounts) {
+		List<PriceBucketDto> buckets = new ArrayList<>(bucketCounts.length);
+		for (int i = 0; i < bucketCounts.length; i++) {
+			Double from = i == 0 ? null : bucketBounds[i - 1];
+			Double to = i == bucketBounds.length ? null : bucketBounds[i];
+			buckets.add(new PriceBucketDto(from, to, bucketCounts[i]));
+		}
+		return buckets;
+	}
+
+	private void removeProduct(Integer productId) {
+		IndexedProduct indexedProduct = products.remove(productId);
+		if (indexedProduct == null) {
+			return;
+		}
+		CategoryFacets facets = categories.get(indexedProduct.categoryId);
+		facets.remove(bucket(indexedProduct.price), indexedProduct.price);
+		if (facets.count == 0) {
+			categories.remove(indexedProduct.categoryId);
+		}
+	}
+
+	private int bucket(double price) {
+		int index = Arrays.binarySearch(bucketBounds, price);
+		// a price equal to a bound opens the next bucket
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+	private static final class IndexedProduct {
+		private final Integer categoryId;
+		private final double price;
+
+		private IndexedProduct(Integer categoryId, double price) {
+			this.categoryId = categoryId;
+			this.price = price;
+		}
+	}
+
+	private static final class CategoryFacets {
+		private final long[] bucketCounts;
+		// price -> number of products at that price, for min and max under removal
+		private final TreeMap<Double, Integer> prices = new TreeMap<>();
+		private long count;
+
+		private CategoryFacets(int buckets) {
+			this.bucketCounts = new long[buckets];
+		}
+
+		private void add(int bucket, double price) {
+			bucketCounts[bucket]++;
+			prices.merge(price, 1, Integer::sum);
+			count++;
+		}
+
+		private void remove(int bucket, double price) {
+			bucketCounts[bucket]--;
+			prices.computeIfPresent(price, (key, products) -> products == 1 ? null : products - 1);
+			count--;
+		}
+	}
+}
@@ -0,0 +1,273 @@
+package com.company.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.company.ecommerce.model.Product;
+
+/**
+ * In-memory inverted index over product name and description. Every query
+ * token must match (the last one also as a prefix, for search-as-you-type) and
+ * matches are ranked with BM25.
+ */
+@Component
+public class ProductSearchIndex {
+
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+	private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+	private final TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+	private final Map<Integer, Document> documents = new HashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private long totalLength;
+
+	/**
+	 * Adds the product to the index, replacing whatever was indexed for the
+	 * same id before.
+	 */
+	public void index(Product product) {
+		List<String> tokens = tokenize(product.getName());
+		tokens.addAll(tokenize(product.getDescription()));
+		Map<String, Integer> frequencies = new HashMap<>();
+		for (String token : tokens) {
+			frequencies.merge(token, 1, Integer::sum);
+		}
+		lock.writeLock().lock();
+		try {
+			removeDocument(product.getId());
+			for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+				postings.computeIfAbsent(frequency.getKey(), term -> new HashMap<>()).put(product.getId(),
+						frequency.getValue());
+			}
+			documents.put(product.getId(),
+					new Document(frequencies.keySet().toArray(new String[0]), tokens.size()));
+			totalLength += tokens.size();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Integer productId) {
+		lock.writeLock().lock();
+		try {
+			removeDocument(productId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documents.clear();
+			totalLength = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public SearchResult search(String query, int page, int size) {
+		if (page < 0 || size < 1) {
+			throw new IllegalArgumentException("Page must not be negative and size must be positive.");
+		}
+		List<String> queryTokens = tokenize(query);
+		if (queryTokens.isEmpty()) {
+			return new SearchResult(Collections.<Integer>emptyList(), 0);
+		}
+		// the token typed last is the prefix, even if it also appears earlier
+		String prefixToken = queryTokens.get(queryTokens.size() - 1);
+		Set<String> tokens = new LinkedHashSet<>(queryTokens);
+
+		lock.readLock().lock();
+		try {
+			if (documents.isEmpty()) {
+				return new SearchResult(Collections.<Integer>emptyList(), 0);
+			}
+			// resolve every token to its matching terms, rarest token first so the
+			// candidate set shrinks as early as possible
+			List<Map<String, Map<Integer, Integer>>> matches = new ArrayList<>();
+			for (String token : tokens) {
+				Map<String, Map<Integer, Integer>> terms = matchingTerms(token, token.equals(prefixToken));
+				if (terms.isEmpty()) {
+					return new SearchResult(Collections.<Integer>emptyList(), 0);
+				}
+				matches.add(terms);
+			}
+			matches.sort((left, right) -> Integer.compare(documentFrequency(left), documentFrequency(right)));
+
+			double averageLength = (double) totalLength / documents.size();
+			Map<Integer, Double> scores = null;
+			for (Map<String, Map<Integer, Integer>> terms : matches) {
+				Map<Integer, Double> tokenScores = new HashMap<>();
+				for (Map<Integer, Integer> termPostings : terms.values()) {
+					double idf = idf(termPostings.size());
+					for (Map.Entry<Integer, Integer> posting : termPostings.entrySet()) {
+						if (scores != null && !scores.containsKey(posting.getKey())) {
+							continue;
+						}
+						double score = idf * bm25(posting.getValue(), documents.get(posting.getKey()).length,
+								averageLength);
+						tokenScores.merge(posting.getKey(), score, Double::sum);
+					}
+				}
+				if (scores != null) {
+					for (Map.Entry<Integer, Double> tokenScore : tokenScores.entrySet()) {
+						tokenScore.setValue(tokenScore.getValue() + scores.get(tokenScore.getKey()));
+					}
+				}
+				scores = tokenScores;
+				if (scores.isEmpty()) {
+					break;
+				}
+			}
+			return new SearchResult(topHits(scores, page, size), scores.size());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		String lowerCase = text.toLowerCase(Locale.ROOT);
+		int start = -1;
+		for (int i = 0; i <= lowerCase.length(); i++) {
+			boolean tokenChar = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+			if (tokenChar && start < 0) {
+				start = i;
+			} else if (!tokenChar && start >= 0) {
+				tokens.add(lowerCase.substring(start, i));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+	private void removeDocument(Integer productId) {
+		Document document = documents.remove(productId);
+		if (document == null) {
+			return;
+		}
+		for (String term : document.terms) {
+			Map<Integer, Integer> termPostings = postings.get(term);
+			termPostings.remove(productId);
+			if (termPostings.isEmpty()) {
+				postings.remove(term);
+			}
+		}
+		totalLength -= document.length;
+	}
+
+	private Map<String, Map<Integer, Integer>> matchingTerms(String token, boolean prefix) {
+		Map<String, Map<Integer, Integer>> terms = new HashMap<>();
+		if (!prefix) {
+			Map<Integer, Integer> termPostings = postings.get(token);
+			if (termPostings != null) {
+				terms.put(token, termPostings);
+			}
+			return terms;
+		}
+		SortedMap<String, Map<Integer, Integer>> expansions = postings.subMap(token, token + Character.MAX_VALUE);
+		for (Map.Entry<String, Map<Integer, Integer>> expansion : expansions.entrySet()) {
+			terms.put(expansion.getKey(), expansion.getValue());
+			if (terms.size() == MAX_PREFIX_EXPANSIONS) {
+				break;
+			}
+		}
+		return terms;
+	}
+
+	private int documentFrequency(Map<String, Map<Integer, Integer>> terms) {
+		int frequency = 0;
+		for (Map<Integer, Integer> termPostings : terms.values()) {
+			frequency += termPostings.size();
+		}
+		return frequency;
+	}
+
+	private double idf(int documentFrequency) {
+		return Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+	}
+
+	private double bm25(int termFrequency, int documentLength, double averageLength) {
+		return termFrequency * (K1 + 1) / (termFrequency + K1 * (1 - B + B * documentLength / averageLength));
+	}
+
+	private List<Integer> topHits(Map<Integer, Double> scores, int page, int size) {
+		long wanted = (long) (page + 1) * size;
+		if (scores.isEmpty() || wanted - size >= scores.size()) {
+			return Collections.emptyList();
+		}
+		// min-heap holding the best (page + 1) * size hits, ties broken by id
+		PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>((left, right) -> {
+			int byScore = Double.compare(left.getValue(), right.getValue());
+			return byScore != 0 ? byScore : Integer.compare(right.getKey(), left.getKey());
+		});
+		for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+			heap.offer(score);
+			if (heap.size() > wanted) {
+				heap.poll();
+			}
+		}
+		List<Integer> ranked = new ArrayList<>(heap.size());
+		while (!heap.isEmpty()) {
+			ranked.add(heap.poll().getKey());
+		}
+		Collections.reverse(ranked);
+		return ranked.subList(page * size, ranked.size());
+	}
+
+	private static final class Document {
+		private final String[] terms;
+		private final int length;
+
+		private Document(String[] terms, int length) {
+			this.terms = terms;
+			this.length = length;
+		}
+	}
+
+	public static final class SearchResult {
+		private final List<Integer> productIds;
+		private final int totalHits;
+
+		private SearchResult(List<Integer> productIds, int totalHits) {
+			this.productIds = productIds;
+			this.totalHits = totalHits;
+		}
+
+		public List<Integer> getProductIds() {
+			return productIds;
+		}
+
+		public int getTotalHits() {
+			return totalHits;
+		}
+	}
+}
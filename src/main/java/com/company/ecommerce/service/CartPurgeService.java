@@ -0,0 +1,93 @@
+package com.company.ecommerce.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.company.ecommerce.cart.CartStore;
+import com.company.ecommerce.dto.cart.CartPurgeStatsDto;
+import com.company.ecommerce.repository.CartRepository;
+
+/**
+ * Deletes abandoned carts, those not changed for longer than the configured
+ * idle time. Carts are purged chunk-size users at a time, each chunk with one
+ * delete in its own short transaction and a pause before the next, so the job
+ * never holds locks for long and logs a few statements per chunk rather than
+ * one per line. The pauses keep a scheduler thread busy for the whole run, so
+ * spring.task.scheduling.pool.size gives every scheduled job its own thread.
+ */
+@Service
+public class CartPurgeService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CartPurgeService.class);
+
+	@Autowired
+	CartRepository repository;
+
+	@Autowired
+	CartStore store;
+
+	@Value("${ecommerce.cart.purge.idle-ttl-hours:720}")
+	long idleTtlHours;
+
+	@Value("${ecommerce.cart.purge.chunk-size:500}")
+	int chunkSize;
+
+	@Value("${ecommerce.cart.purge.pause-ms:200}")
+	long pauseMillis;
+
+	private long runs;
+	private long linesPurged;
+	private long totalMillis;
+	private Date lastRunAt;
+	private long lastRunLinesPurged;
+	private long lastRunMillis;
+
+	@Scheduled(fixedDelayString = "${ecommerce.cart.purge.interval-ms:3600000}", initialDelayString = "${ecommerce.cart.purge.interval-ms:3600000}")
+	public void purgeIdleCarts() {
+		Date startedAt = new Date();
+		long start = System.nanoTime();
+		Date cutoff = new Date(startedAt.getTime() - TimeUnit.HOURS.toMillis(idleTtlHours));
+		long purged = 0;
+		Integer afterUserId = 0;
+		try {
+			while (true) {
+				List<Integer> userIds = repository.findIdleUserIds(afterUserId, cutoff, PageRequest.of(0, chunkSize));
+				if (userIds.isEmpty()) {
+					break;
+				}
+				purged += store.purgeIdle(userIds, cutoff);
+				afterUserId = userIds.get(userIds.size() - 1);
+				if (userIds.size() < chunkSize) {
+					break;
+				}
+				Thread.sleep(pauseMillis);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			synchronized (this) {
+				runs++;
+				linesPurged += purged;
+				totalMillis += millis;
+				lastRunAt = startedAt;
+				lastRunLinesPurged = purged;
+				lastRunMillis = millis;
+			}
+			LOGGER.info("Purged {} cart lines idle since {} in {} ms", purged, cutoff, millis);
+		}
+	}
+
+	public synchronized CartPurgeStatsDto getStats() {
+		return new CartPurgeStatsDto(runs, linesPurged, totalMillis, lastRunAt, lastRunLinesPurged, lastRunMillis);
+	}
+}
@@ -1,31 +1,46 @@
 package com.company.ecommerce.service;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.company.ecommerce.cart.CartStore;
+import com.company.ecommerce.concurrency.OptimisticRetry;
 import com.company.ecommerce.dto.cart.AddToCartDto;
 import com.company.ecommerce.dto.cart.CartDto;
 import com.company.ecommerce.dto.cart.CartItemDto;
+import com.company.ecommerce.dto.cart.CartOperationDto;
+import com.company.ecommerce.dto.cart.CartSummaryDto;
+import com.company.ecommerce.enums.CartOperationType;
+import com.company.ecommerce.exception.runtime.BadRequestException;
 import com.company.ecommerce.exception.runtime.NotFoundException;
 import com.company.ecommerce.model.Cart;
 import com.company.ecommerce.model.Product;
 import com.company.ecommerce.model.User;
-import com.company.ecommerce.repository.CartRepository;
+import com.company.ecommerce.pricing.PriceCalculator;
 
 @Service
 public class CartService {
 
 	@Autowired
-	CartRepository repository;
+	CartStore store;
+
+	@Autowired
+	PriceCalculator priceCalculator;
+
+	@Autowired
+	OptimisticRetry optimisticRetry;
 
 	public Cart addToCart(AddToCartDto addToCartDto, Product product, User user) {
-		Cart cart = new Cart(product, addToCartDto.getQuantity(), user);
-		return repository.save(cart);
+		return retryOnDuplicate(() -> store.add(user, product, addToCartDto.getQuantity()));
 	}
 
 	private CartItemDto getDtoFromCart(Cart cart) {
@@ -33,45 +48,113 @@ public class CartService {
 		return cartItemDto;
 	}
 
+	public List<Cart> getCartItems(User user) {
+		return store.findByUser(user);
+	}
+
 	public CartDto listCartItems(User user) {
-		List<Cart> cartList = repository.findAllByUserOrderByCreatedDateDesc(user);
-		List<CartItemDto> cartItems = new ArrayList<>();
+		return getCartDto(getCartItems(user));
+	}
+
+	public CartDto getCartDto(List<Cart> cartList) {
+		List<CartItemDto> cartItems = new ArrayList<>(cartList.size());
 		for (Cart cart : cartList) {
-			CartItemDto cartItemDto = getDtoFromCart(cart);
-			cartItems.add(cartItemDto);
-		}
-		double totalCost = 0;
-		for (CartItemDto cartItemDto : cartItems) {
-			totalCost += (cartItemDto.getProduct().getPrice() * cartItemDto.getQuantity());
+			cartItems.add(getDtoFromCart(cart));
 		}
-		CartDto cartDto = new CartDto(cartItems, totalCost);
+		CartDto cartDto = new CartDto(cartItems, priceCalculator.toMajorUnits(priceCalculator.total(cartList)));
 		return cartDto;
 	}
 
-	public Cart updateCartItem(AddToCartDto cartDto, User user, Product product) {
-		Optional<Cart> cartOptional = repository.findById(cartDto.getId());
-		if (cartOptional.isPresent()) {
-			Cart cart = cartOptional.get();
-			cart.setQuantity(cartDto.getQuantity());
-			cart.setCreatedDate(new Date());
-			return repository.save(cart);
-		}else {
-			throw new NotFoundException("Cart with id " + cartDto.getId() + " not found.");
+	/**
+	 * Validates the operations and returns the distinct product ids they refer to.
+	 */
+	public List<Integer> getProductIds(List<CartOperationDto> operations) {
+		if (operations == null || operations.isEmpty()) {
+			throw new BadRequestException("At least one cart operation is required.");
 		}
+		Set<Integer> productIds = new LinkedHashSet<>();
+		for (CartOperationDto operation : operations) {
+			if (operation.getOp() == null || operation.getProductId() == null) {
+				throw new BadRequestException("Every cart operation needs an op and a productId.");
+			}
+			if (operation.getOp() != CartOperationType.remove && (operation.getQuantity() == null
+					|| operation.getQuantity() < (operation.getOp() == CartOperationType.add ? 1 : 0))) {
+				throw new BadRequestException("Invalid quantity " + operation.getQuantity() + " for "
+						+ operation.getOp() + " of product " + operation.getProductId() + ".");
+			}
+			productIds.add(operation.getProductId());
+		}
+		return new ArrayList<>(productIds);
 	}
 
-	public void deleteCartItem(int id, int userId) throws NotFoundException {
-		if (!repository.existsById(id))
-			throw new NotFoundException("Cart with id " + id + " not found.");
-		repository.deleteById(id);
+	/**
+	 * Applies all operations to the user's cart as one change and returns the
+	 * resulting cart. The change is applied again from the start if a line was
+	 * changed concurrently.
+	 */
+	public CartDto applyCartOperations(User user, List<CartOperationDto> operations, Map<Integer, Product> products)
+			throws NotFoundException {
+		for (Integer productId : getProductIds(operations)) {
+			if (!products.containsKey(productId)) {
+				throw new NotFoundException("Product with id " + productId + " not found.");
+			}
+		}
+		return getCartDto(retryOnDuplicate(
+				() -> optimisticRetry.execute("applyCartOperations", () -> store.apply(user, operations, products))));
+	}
 
+	public CartSummaryDto getCartSummary(User user) {
+		return store.getSummary(user);
+	}
+
+	public void productUpdated(Product product, double previousPrice) {
+		store.productUpdated(product, previousPrice);
+	}
+
+	/**
+	 * Setting a quantity can safely be repeated, so a version conflict with a
+	 * concurrent change of the line is retried rather than overwriting it.
+	 */
+	public Cart updateCartItem(AddToCartDto cartDto, User user, Product product) {
+		return optimisticRetry.execute("updateCartItem",
+				() -> store.update(user, cartDto.getId(), cartDto.getQuantity()));
+	}
+
+	public void deleteCartItem(int id, User user) throws NotFoundException {
+		optimisticRetry.executeWithoutResult("deleteCartItem", () -> store.delete(user, id));
 	}
 
 	public void deleteCartItems(int userId) {
-		repository.deleteAll();
+		store.clear(userId);
+	}
+
+	/**
+	 * Removes checked out lines, as returned by getCartItems, in the current
+	 * transaction.
+	 */
+	public void deleteCheckedOutItems(User user, List<Cart> cartItems) {
+		store.deleteLines(user, cartItems);
 	}
 
 	public void deleteUserCartItems(User user) {
-		repository.deleteByUser(user);
+		store.clear(user.getId());
+	}
+
+	/**
+	 * Runs a cart change that inserts the user's line or summary row when it is
+	 * missing. When a concurrent change inserts the same row first, the unique
+	 * key fails the change and its transaction is rolled back as a whole; the
+	 * change is then run once more and finds the row to update. Inside a caller's
+	 * transaction there is nothing to run again, so the failure is passed on.
+	 */
+	private <T> T retryOnDuplicate(Supplier<T> change) {
+		try {
+			return change.get();
+		} catch (DataIntegrityViolationException e) {
+			if (TransactionSynchronizationManager.isActualTransactionActive()) {
+				throw e;
+			}
+			return change.get();
+		}
 	}
 }
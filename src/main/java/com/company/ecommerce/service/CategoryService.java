@@ -4,8 +4,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import com.company.ecommerce.cache.CatalogVersion;
+import com.company.ecommerce.dto.category.CategorySummaryDto;
 import com.company.ecommerce.model.Category;
 import com.company.ecommerce.repository.CategoryRepository;
 
@@ -15,12 +19,21 @@ public class CategoryService {
 	@Autowired
 	private CategoryRepository repository;
 
+	@Autowired
+	private CatalogVersion catalogVersion;
+
 	public List<Category> listCategories() {
 		return repository.findAll();
 	}
 
+	public List<CategorySummaryDto> listCategorySummaries() {
+		return repository.findSummaries();
+	}
+
 	public Category createCategory(Category category) {
-		return repository.save(category);
+		Category savedCategory = repository.save(category);
+		catalogVersion.increment();
+		return savedCategory;
 	}
 
 	public Category findByCategoryName(String categoryName) {
@@ -31,6 +44,23 @@ public class CategoryService {
 		return repository.findById(categoryId);
 	}
 
+	public List<Category> findAllById(Iterable<Integer> categoryIds) {
+		return repository.findAllById(categoryIds);
+	}
+
+	public void addToProductCount(Integer categoryId, long delta) {
+		repository.addToProductCount(categoryId, delta);
+	}
+
+	/**
+	 * Recomputes every product count once at startup, so counts are correct even
+	 * if products were changed without going through ProductService.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void recountProducts() {
+		repository.recountProducts();
+	}
+
 	public Category updateCategory(Integer categoryID, Category newCategory) {
 		Category category = repository.findById(categoryID).get();
 		category.setCategoryName(newCategory.getCategoryName());
@@ -38,6 +68,8 @@ public class CategoryService {
 		category.setProducts(newCategory.getProducts());
 		category.setImageUrl(newCategory.getImageUrl());
 
-		return repository.save(category);
+		Category savedCategory = repository.save(category);
+		catalogVersion.increment();
+		return savedCategory;
 	}
 }
@@ -0,0 +1,34 @@
+package com.company.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.company.ecommerce.dto.category.PriceFacetDto;
+import com.company.ecommerce.exception.runtime.NotFoundException;
+import com.company.ecommerce.search.PriceFacetIndex;
+
+@Service
+public class FacetService {
+
+	@Autowired
+	PriceFacetIndex priceFacetIndex;
+
+	@Autowired
+	CategoryService categoryService;
+
+	/**
+	 * Returns the price facets of the category from memory. The database is
+	 * only asked when the category has no products, to tell an empty category
+	 * from an unknown one.
+	 */
+	public PriceFacetDto getPriceFacets(Integer categoryId) throws NotFoundException {
+		PriceFacetDto facets = priceFacetIndex.getFacets(categoryId);
+		if (facets != null) {
+			return facets;
+		}
+		if (!categoryService.findById(categoryId).isPresent()) {
+			throw new NotFoundException("Category with id " + categoryId + " not found.");
+		}
+		return priceFacetIndex.getEmptyFacets(categoryId);
+	}
+}
@@ -0,0 +1,187 @@
+package com.company.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.company.ecommerce.dto.product.StockDto;
+import com.company.ecommerce.exception.runtime.BadRequestException;
+import com.company.ecommerce.exception.runtime.NotFoundException;
+import com.company.ecommerce.exception.runtime.OutOfStockException;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.StockReservation;
+import com.company.ecommerce.repository.ProductRepository;
+import com.company.ecommerce.repository.StockReservationRepository;
+
+/**
+ * Keeps the stock of products that track it. Stock is only taken with a
+ * conditional update that fails when too little is left, so no interleaving
+ * of checkouts can sell more than there is. Each update locks the product row
+ * until its transaction ends, so checkouts take stock as their last step and
+ * in product id order: the lock is held only for the commit, and two orders
+ * of the same products cannot deadlock.
+ */
+@Service
+public class InventoryService {
+
+	/**
+	 * Untracked stock (null) is never taken from and always succeeds. A negative
+	 * quantity returns stock and always succeeds.
+	 */
+	private static final String TAKE_SQL = "update products set stock = stock - ? where id = ? and (stock is null or stock >= ?)";
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	StockReservationRepository reservationRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${ecommerce.inventory.reservation-ttl-seconds:300}")
+	long reservationTtlSeconds;
+
+	public StockDto getStock(Integer productId) throws NotFoundException {
+		if (!productRepository.existsById(productId)) {
+			throw new NotFoundException("Product with id " + productId + " not found.");
+		}
+		return new StockDto(productId, productRepository.findStockById(productId));
+	}
+
+	@Transactional
+	public StockDto addStock(Integer productId, int quantity) throws NotFoundException {
+		if (productRepository.addStock(productId, quantity) == 0) {
+			if (!productRepository.existsById(productId)) {
+				throw new NotFoundException("Product with id " + productId + " not found.");
+			}
+			throw new BadRequestException("Stock of product " + productId + " cannot go below zero.");
+		}
+		return new StockDto(productId, productRepository.findStockById(productId));
+	}
+
+	/**
+	 * Returns the quantity per product of the given cart lines, ordered by
+	 * product id.
+	 */
+	public Map<Integer, Integer> getQuantities(List<Cart> cartItems) {
+		Map<Integer, Integer> quantities = new TreeMap<>();
+		for (Cart cartItem : cartItems) {
+			quantities.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
+		}
+		return quantities;
+	}
+
+	/**
+	 * Takes the quantities off the stock in the current transaction, as one JDBC
+	 * batch of conditional updates whatever the number of products.
+	 */
+	public void take(Map<Integer, Integer> quantities) throws OutOfStockException {
+		changeStock(quantities);
+	}
+
+	/**
+	 * Takes the quantities off the stock for a pending order, to be confirmed
+	 * when the order is placed or returned when it expires.
+	 */
+	public void reserve(Integer orderId, Map<Integer, Integer> quantities) throws OutOfStockException {
+		take(quantities);
+		Date expiresAt = new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(reservationTtlSeconds));
+		List<StockReservation> reservations = new ArrayList<>(quantities.size());
+		for (Map.Entry<Integer, Integer> quantity : quantities.entrySet()) {
+			reservations.add(new StockReservation(orderId, quantity.getKey(), quantity.getValue(), expiresAt));
+		}
+		reservationRepository.saveAll(reservations);
+	}
+
+	/**
+	 * Settles the reservations of a pending order that is being placed with the
+	 * given quantities, which may differ from the reserved ones if the cart
+	 * changed in between: extra units are taken, units no longer needed are
+	 * returned, both in one pass in product id order. Fails if the reservations
+	 * have expired in the meantime.
+	 */
+	public void confirm(Integer orderId, Map<Integer, Integer> quantities) throws OutOfStockException {
+		List<StockReservation> reservations = reservationRepository.findAllByOrderId(orderId);
+		if (reservations.isEmpty() && !quantities.isEmpty()) {
+			throw new OutOfStockException("Stock reservation of order " + orderId + " has expired.");
+		}
+		deleteAll(orderId, reservations);
+		Map<Integer, Integer> difference = new TreeMap<>(quantities);
+		for (StockReservation reservation : reservations) {
+			difference.merge(reservation.getProductId(), -reservation.getQuantity(), Integer::sum);
+		}
+		difference.values().removeIf(quantity -> quantity == 0);
+		changeStock(difference);
+	}
+
+	/**
+	 * Returns the reserved stock of an order to its products.
+	 */
+	public void release(Integer orderId) {
+		List<StockReservation> reservations = reservationRepository.findAllByOrderId(orderId);
+		deleteAll(orderId, reservations);
+		Map<Integer, Integer> quantities = new TreeMap<>();
+		for (StockReservation reservation : reservations) {
+			quantities.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+		}
+		for (Map.Entry<Integer, Integer> quantity : quantities.entrySet()) {
+			productRepository.returnStock(quantity.getKey(), quantity.getValue());
+		}
+	}
+
+	public List<Integer> findExpiredOrderIds(int limit) {
+		return reservationRepository.findExpiredOrderIds(new Date(), PageRequest.of(0, limit));
+	}
+
+	/**
+	 * Takes positive quantities off the stock and returns negative ones to it, as
+	 * one JDBC batch in product id order, so the product rows are always locked
+	 * in that order. Only a take can run out of stock.
+	 */
+	private void changeStock(Map<Integer, Integer> quantities) throws OutOfStockException {
+		if (quantities.isEmpty()) {
+			return;
+		}
+		List<Object[]> updates = new ArrayList<>(quantities.size());
+		List<Map.Entry<Integer, Integer>> changes = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+		for (Map.Entry<Integer, Integer> quantity : changes) {
+			updates.add(new Object[] { quantity.getValue(), quantity.getKey(), quantity.getValue() });
+		}
+		int[] counts = jdbcTemplate.batchUpdate(TAKE_SQL, updates);
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] == 0 && changes.get(i).getValue() > 0) {
+				throw new OutOfStockException("Product with id " + changes.get(i).getKey() + " is out of stock.");
+			}
+		}
+	}
+
+	/**
+	 * Deletes the reservations as read, failing if any of them was confirmed or
+	 * released concurrently.
+	 */
+	private void deleteAll(Integer orderId, List<StockReservation> reservations) {
+		if (reservations.isEmpty()) {
+			return;
+		}
+		List<Integer> ids = new ArrayList<>(reservations.size());
+		for (StockReservation reservation : reservations) {
+			ids.add(reservation.getId());
+		}
+		if (reservationRepository.deleteByIds(ids) != ids.size()) {
+			throw new OptimisticLockingFailureException(
+					"Stock reservation of order " + orderId + " was settled concurrently.");
+		}
+	}
+}
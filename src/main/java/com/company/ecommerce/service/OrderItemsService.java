@@ -1,5 +1,7 @@
 package com.company.ecommerce.service;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -12,7 +14,7 @@ public class OrderItemsService {
 	@Autowired
 	OrderItemsRepository orderItemsRepository;
 
-	public void addOrderedProducts(OrderItem orderItem) {
-		orderItemsRepository.save(orderItem);
+	public void addOrderedProducts(List<OrderItem> orderItems) {
+		orderItemsRepository.saveAll(orderItems);
 	}
 }
\ No newline at end of file
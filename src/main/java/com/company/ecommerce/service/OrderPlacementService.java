@@ -0,0 +1,158 @@
+package com.company.ecommerce.service;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.company.ecommerce.exception.runtime.OutOfStockException;
+import com.company.ecommerce.exception.runtime.TooManyRequestsException;
+import com.company.ecommerce.model.Order;
+import com.company.ecommerce.model.User;
+
+/**
+ * Places orders in the background. A submitted order is saved as pending
+ * right away and placed from the user's cart by one of a fixed number of
+ * worker threads; callers poll its status. At most max-pending orders wait or
+ * run at a time, further submissions are rejected rather than queued, so a
+ * burst of checkouts cannot pile up unbounded work. Orders still pending at
+ * startup, left over from a stop before their worker ran, are placed then if
+ * asynchronous placement is enabled.
+ * Stock is reserved when the order is submitted; a pending order whose
+ * reservation expires is failed and the stock returned.
+ */
+@Service
+public class OrderPlacementService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderPlacementService.class);
+
+	private static final int EXPIRY_BATCH_SIZE = 500;
+
+	@Autowired
+	OrderService orderService;
+
+	@Autowired
+	InventoryService inventoryService;
+
+	@Value("${ecommerce.orders.async.enabled:false}")
+	boolean enabled;
+
+	@Value("${ecommerce.orders.async.workers:4}")
+	int workers;
+
+	@Value("${ecommerce.orders.async.max-pending:1000}")
+	int maxPending;
+
+	private Semaphore slots;
+
+	private ThreadPoolExecutor executor;
+
+	@PostConstruct
+	void init() {
+		slots = new Semaphore(maxPending);
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, "order-placement-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				threadFactory);
+	}
+
+	/**
+	 * Lets the workers finish the orders already submitted.
+	 */
+	@PreDestroy
+	void shutdown() throws InterruptedException {
+		executor.shutdown();
+		if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+			LOGGER.warn("{} orders still pending at shutdown, they are placed on the next start",
+					executor.getQueue().size());
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Saves a pending order for the user, reserving the stock of the cart, and
+	 * queues its placement.
+	 */
+	public Order submit(User user) throws TooManyRequestsException, OutOfStockException {
+		if (!slots.tryAcquire()) {
+			throw new TooManyRequestsException("Too many orders are being placed, please try again shortly.");
+		}
+		try {
+			Order order = orderService.createPendingOrder(user);
+			executor.execute(() -> place(order.getId(), user));
+			return order;
+		} catch (RuntimeException e) {
+			slots.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Queues the orders left pending by the previous run, as many as there are
+	 * free slots. Startup never waits for a slot: the orders that do not fit
+	 * stay pending until their stock reservation expires and
+	 * expireReservations fails them.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void resumePendingOrders() {
+		if (!enabled) {
+			return;
+		}
+		int overflow = 0;
+		for (Order order : orderService.listPendingOrders()) {
+			if (!slots.tryAcquire()) {
+				overflow++;
+				continue;
+			}
+			executor.execute(() -> place(order.getId(), order.getUser()));
+		}
+		if (overflow > 0) {
+			LOGGER.warn("{} pending orders did not fit in max-pending, they fail once their reservation expires",
+					overflow);
+		}
+	}
+
+	/**
+	 * Fails pending orders whose stock reservation expired before a worker got
+	 * to them, returning the stock.
+	 */
+	@Scheduled(fixedDelayString = "${ecommerce.inventory.expiry-interval-ms:30000}")
+	public void expireReservations() {
+		for (Integer orderId : inventoryService.findExpiredOrderIds(EXPIRY_BATCH_SIZE)) {
+			LOGGER.info("Stock reservation of order {} expired", orderId);
+			orderService.failPendingOrder(orderId);
+		}
+	}
+
+	private void place(int orderId, User user) {
+		try {
+			orderService.placePendingOrder(orderId, user);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Placing order {} failed", orderId, e);
+			orderService.failPendingOrder(orderId);
+		} finally {
+			slots.release();
+		}
+	}
+}
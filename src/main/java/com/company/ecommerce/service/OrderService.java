@@ -1,23 +1,42 @@
 package com.company.ecommerce.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.company.ecommerce.dto.cart.CartDto;
-import com.company.ecommerce.dto.cart.CartItemDto;
+import com.company.ecommerce.concurrency.OptimisticRetry;
+import com.company.ecommerce.dto.order.OrderPageDto;
+import com.company.ecommerce.dto.order.OrderStatusDto;
+import com.company.ecommerce.dto.order.OrderSummaryDto;
+import com.company.ecommerce.dto.order.OrderSummaryPageDto;
 import com.company.ecommerce.dto.order.PlaceOrderDto;
+import com.company.ecommerce.enums.OrderStatus;
+import com.company.ecommerce.exception.runtime.BadRequestException;
+import com.company.ecommerce.exception.runtime.NotFoundException;
+import com.company.ecommerce.exception.runtime.OutOfStockException;
+import com.company.ecommerce.model.Cart;
 import com.company.ecommerce.model.Order;
 import com.company.ecommerce.model.OrderItem;
 import com.company.ecommerce.model.User;
+import com.company.ecommerce.pricing.PriceCalculator;
 import com.company.ecommerce.repository.OrderRepository;
+import com.company.ecommerce.repository.OrderSummaryRepository;
 
 @Service
 public class OrderService {
 
+	public static final int MAX_PAGE_SIZE = 100;
+
+	private static final String CURSOR_SEPARATOR = ":";
+
 	@Autowired
 	OrderRepository orderRepository;
 
@@ -27,36 +46,226 @@ public class OrderService {
 	@Autowired
 	OrderItemsService orderItemsService;
 
+	@Autowired
+	PriceCalculator priceCalculator;
+
+	@Autowired
+	InventoryService inventoryService;
+
+	@Autowired
+	OrderSummaryService orderSummaryService;
+
+	@Autowired
+	OrderSummaryRepository orderSummaryRepository;
+
+	@Autowired
+	OutboxService outboxService;
+
+	@Autowired
+	OptimisticRetry optimisticRetry;
+
 	public Order saveOrder(PlaceOrderDto orderDto, User user) {
 		Order order = new Order(orderDto, user);
 		return orderRepository.save(order);
 	}
 
-	public List<Order> listOrders(User user) {
-		return orderRepository.findAllByUserOrderByCreatedDateDesc(user);
+	/**
+	 * Returns one page of the user's orders with their items, newest first, in
+	 * two queries: one for the ids of the page and one for the orders, items and
+	 * products. Pages are addressed by the opaque cursor returned with the
+	 * previous page (keyset on created date and id).
+	 */
+	public OrderPageDto listOrders(User user, int limit, String after) {
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+		}
+		// one extra id tells us whether there is a next page
+		Pageable pageable = PageRequest.of(0, limit + 1);
+		List<Integer> ids;
+		if (after == null) {
+			ids = orderRepository.findIdsByUser(user, pageable);
+		} else {
+			String[] cursor = decodeCursor(after);
+			ids = orderRepository.findNextIdsByUser(user, new Date(parseLong(cursor[0], after)),
+					parseInt(cursor[1], after), pageable);
+		}
+		boolean hasNext = ids.size() > limit;
+		if (hasNext) {
+			ids = ids.subList(0, limit);
+		}
+		List<Order> orders = ids.isEmpty() ? new ArrayList<>() : orderRepository.findAllWithItemsByIdIn(ids);
+		String nextCursor = null;
+		if (hasNext) {
+			Order last = orders.get(orders.size() - 1);
+			nextCursor = encodeCursor(last.getCreatedDate(), last.getId());
+		}
+		return new OrderPageDto(orders, nextCursor);
+	}
+
+	/**
+	 * Returns one page of the summaries of the user's placed orders, newest
+	 * first, read from the order_summary table alone. Pages are addressed as in
+	 * listOrders.
+	 */
+	public OrderSummaryPageDto listOrderSummaries(User user, int limit, String after) {
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+		}
+		Pageable pageable = PageRequest.of(0, limit + 1);
+		List<OrderSummaryDto> summaries;
+		if (after == null) {
+			summaries = orderSummaryRepository.findDtosByUserId(user.getId(), pageable);
+		} else {
+			String[] cursor = decodeCursor(after);
+			summaries = orderSummaryRepository.findNextDtosByUserId(user.getId(),
+					new Date(parseLong(cursor[0], after)), parseInt(cursor[1], after), pageable);
+		}
+		String nextCursor = null;
+		if (summaries.size() > limit) {
+			summaries = summaries.subList(0, limit);
+			OrderSummaryDto last = summaries.get(limit - 1);
+			nextCursor = encodeCursor(last.getCreatedDate(), last.getOrderId());
+		}
+		return new OrderSummaryPageDto(summaries, nextCursor);
 	}
 
 	public Optional<Order> getOrder(int orderId) {
 		return orderRepository.findById(orderId);
 	}
 
-	@Transactional
-	public void placeOrder(User user) {
-		CartDto cartDto = cartService.listCartItems(user);
+	/**
+	 * Turns the user's cart into an order in one transaction. If a cart line is
+	 * changed while the order is placed, the checkout is rolled back and placed
+	 * again from the changed cart. The order's summary and its OrderPlaced
+	 * outbox event are written in the same transaction. Fails without placing
+	 * anything if a product is out of stock. Orders and items take their ids
+	 * from pooled sequences, so the order and all of its items are written as
+	 * JDBC batches when the transaction is flushed.
+	 */
+	public void placeOrder(User user) throws OutOfStockException {
+		optimisticRetry.executeWithoutResult("placeOrder", () -> createOrder(user, null));
+	}
 
-		PlaceOrderDto placeOrderDto = new PlaceOrderDto();
-		placeOrderDto.setUser(user);
-		placeOrderDto.setTotalPrice(cartDto.getTotalCost());
+	/**
+	 * Saves an empty order in the pending status, to be placed later by
+	 * placePendingOrder, and reserves the stock of the user's cart for it.
+	 */
+	public Order createPendingOrder(User user) throws OutOfStockException {
+		return optimisticRetry.execute("createPendingOrder", () -> {
+			PlaceOrderDto placeOrderDto = new PlaceOrderDto();
+			placeOrderDto.setUser(user);
+			Order order = new Order(placeOrderDto, user);
+			order.setStatus(OrderStatus.pending);
+			Order savedOrder = orderRepository.save(order);
+			inventoryService.reserve(savedOrder.getId(),
+					inventoryService.getQuantities(cartService.getCartItems(user)));
+			return savedOrder;
+		});
+	}
 
-		Order newOrder = saveOrder(placeOrderDto, user);
-		
-		List<CartItemDto> cartItemDtoList = cartDto.getcartItems();
-		for (CartItemDto cartItemDto : cartItemDtoList) {
-			OrderItem orderItem = new OrderItem(newOrder, cartItemDto.getProduct(), cartItemDto.getQuantity(),
-					cartItemDto.getProduct().getPrice());
-			orderItemsService.addOrderedProducts(orderItem);
+	/**
+	 * Places a pending order from the user's current cart, as placeOrder does.
+	 * Does nothing if the order is no longer pending.
+	 */
+	public void placePendingOrder(int orderId, User user) {
+		optimisticRetry.executeWithoutResult("placePendingOrder", () -> {
+			Optional<Order> orderOptional = orderRepository.findById(orderId);
+			if (orderOptional.isPresent() && orderOptional.get().getStatus() == OrderStatus.pending) {
+				createOrder(user, orderOptional.get());
+			}
+		});
+	}
+
+	/**
+	 * Marks the order failed if it is still pending and returns whatever stock
+	 * is still reserved for it.
+	 */
+	public void failPendingOrder(int orderId) {
+		optimisticRetry.executeWithoutResult("failPendingOrder", () -> {
+			orderRepository.updateStatus(orderId, OrderStatus.pending, OrderStatus.failed);
+			inventoryService.release(orderId);
+		});
+	}
+
+	public List<Order> listPendingOrders() {
+		return orderRepository.findAllByStatus(OrderStatus.pending);
+	}
+
+	public OrderStatusDto getOrderStatus(int orderId, User user) throws NotFoundException {
+		Optional<Order> orderOptional = orderRepository.findById(orderId);
+		if (!orderOptional.isPresent() || !orderOptional.get().getUser().getId().equals(user.getId())) {
+			throw new NotFoundException("Order with id " + orderId + " not found.");
 		}
+		return new OrderStatusDto(orderOptional.get());
+	}
+
+	private void createOrder(User user, Order pendingOrder) {
+		List<Cart> cartItems = cartService.getCartItems(user);
+		double totalPrice = priceCalculator.toMajorUnits(priceCalculator.total(cartItems));
 
-		cartService.deleteUserCartItems(user);
+		Order order;
+		if (pendingOrder == null) {
+			PlaceOrderDto placeOrderDto = new PlaceOrderDto();
+			placeOrderDto.setUser(user);
+			placeOrderDto.setTotalPrice(totalPrice);
+			order = saveOrder(placeOrderDto, user);
+		} else {
+			order = pendingOrder;
+			order.setTotalPrice(totalPrice);
+			order.setStatus(OrderStatus.placed);
+		}
+
+		List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
+		for (Cart cartItem : cartItems) {
+			double price = priceCalculator.toMajorUnits(priceCalculator.toMinorUnits(cartItem.getProduct().getPrice()));
+			orderItems.add(new OrderItem(order, cartItem.getProduct(), cartItem.getQuantity(), price));
+		}
+		orderItemsService.addOrderedProducts(orderItems);
+		orderSummaryService.record(order, orderItems);
+		outboxService.orderPlaced(order, orderItems);
+
+		cartService.deleteCheckedOutItems(user, cartItems);
+
+		// last, so the product rows stay locked only until the commit
+		if (pendingOrder == null) {
+			inventoryService.take(inventoryService.getQuantities(cartItems));
+		} else {
+			inventoryService.confirm(order.getId(), inventoryService.getQuantities(cartItems));
+		}
+	}
+
+	private String encodeCursor(Date createdDate, Integer id) {
+		String cursor = createdDate.getTime() + CURSOR_SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String[] decodeCursor(String after) {
+		String cursor;
+		try {
+			cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor: " + after);
+		}
+		String[] parts = cursor.split(CURSOR_SEPARATOR);
+		if (parts.length != 2) {
+			throw new BadRequestException("Invalid cursor: " + after);
+		}
+		return parts;
+	}
+
+	private long parseLong(String value, String after) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid cursor: " + after);
+		}
+	}
+
+	private int parseInt(String value, String after) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid cursor: " + after);
+		}
 	}
 }
@@ -0,0 +1,116 @@
+package com.company.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.company.ecommerce.dto.order.OrderSummaryRebuildDto;
+import com.company.ecommerce.model.Order;
+import com.company.ecommerce.model.OrderItem;
+import com.company.ecommerce.model.OrderSummary;
+import com.company.ecommerce.repository.OrderRepository;
+import com.company.ecommerce.repository.OrderSummaryRepository;
+
+/**
+ * Maintains the order_summary read model: one row per placed order, written
+ * by the checkout transaction, and rebuilt from the order tables on demand.
+ * A rebuild splits the order ids into ranges of chunk-size ids and rewrites
+ * each range in its own transaction, parallelism ranges at a time. Each range
+ * is replaced atomically, so the list stays readable while a rebuild runs and
+ * a failed rebuild can simply be run again.
+ */
+@Service
+public class OrderSummaryService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderSummaryService.class);
+
+	@Autowired
+	OrderSummaryRepository repository;
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${ecommerce.orders.summary.rebuild.chunk-size:1000}")
+	int chunkSize;
+
+	@Value("${ecommerce.orders.summary.rebuild.parallelism:4}")
+	int parallelism;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	void init() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Writes the summary of an order being placed, in the current transaction.
+	 */
+	public void record(Order order, List<OrderItem> orderItems) {
+		long itemCount = 0;
+		for (OrderItem orderItem : orderItems) {
+			itemCount += orderItem.getQuantity();
+		}
+		String firstProductName = orderItems.isEmpty() ? null : orderItems.get(0).getProduct().getName();
+		repository.save(new OrderSummary(order, itemCount, firstProductName));
+	}
+
+	public synchronized OrderSummaryRebuildDto rebuild() {
+		long start = System.nanoTime();
+		Integer minId = orderRepository.findMinId();
+		Integer maxId = orderRepository.findMaxId();
+		List<Callable<Integer>> chunks = new ArrayList<>();
+		if (minId != null) {
+			for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+				int from = (int) fromId;
+				int to = (int) Math.min(fromId + chunkSize - 1, maxId);
+				chunks.add(() -> transactionTemplate.execute(status -> {
+					repository.deleteByOrderIdBetween(from, to);
+					return repository.insertSummariesFromOrders(from, to);
+				}));
+			}
+		}
+
+		long summaries = 0;
+		if (!chunks.isEmpty()) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()),
+					runnable -> new Thread(runnable, "order-summary-rebuild-" + threadNumber.incrementAndGet()));
+			try {
+				for (Future<Integer> chunk : executor.invokeAll(chunks)) {
+					summaries += chunk.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while rebuilding order summaries", e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Rebuilding order summaries failed", e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		LOGGER.info("Rebuilt {} order summaries in {} chunks in {} ms", summaries, chunks.size(), millis);
+		return new OrderSummaryRebuildDto(chunks.size(), summaries, millis);
+	}
+}
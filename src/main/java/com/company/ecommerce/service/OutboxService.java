@@ -0,0 +1,54 @@
+package com.company.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.company.ecommerce.dto.checkout.CheckoutItemDto;
+import com.company.ecommerce.dto.order.OrderPlacedEventDto;
+import com.company.ecommerce.model.Order;
+import com.company.ecommerce.model.OrderItem;
+import com.company.ecommerce.model.OutboxEvent;
+import com.company.ecommerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes events to the outbox in the current transaction, so an event exists
+ * exactly when the change it describes commits. OutboxRelay publishes them.
+ */
+@Service
+public class OutboxService {
+
+	public static final String ORDER = "order";
+
+	public static final String ORDER_PLACED = "OrderPlaced";
+
+	@Autowired
+	OutboxEventRepository repository;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	public void orderPlaced(Order order, List<OrderItem> orderItems) {
+		Integer userId = order.getUser().getId();
+		List<CheckoutItemDto> items = new ArrayList<>(orderItems.size());
+		for (OrderItem orderItem : orderItems) {
+			items.add(new CheckoutItemDto(orderItem.getProduct().getName(), orderItem.getQuantity(),
+					orderItem.getPrice(), orderItem.getProduct().getId(), userId));
+		}
+		OrderPlacedEventDto event = new OrderPlacedEventDto(order.getId(), userId, order.getTotalPrice(),
+				order.getCreatedDate(), items);
+		repository.save(new OutboxEvent(ORDER, order.getId(), ORDER_PLACED, toJson(event)));
+	}
+
+	private String toJson(Object event) {
+		try {
+			return objectMapper.writeValueAsString(event);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize outbox event", e);
+		}
+	}
+}
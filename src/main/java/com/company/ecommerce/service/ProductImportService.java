@@ -0,0 +1,125 @@
+package com.company.ecommerce.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.company.ecommerce.dto.product.BulkImportResultDto;
+import com.company.ecommerce.dto.product.ProductDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Imports supplier feeds in batches. Each batch is validated row by row and
+ * then written in its own transaction by ProductService.addProducts, so a
+ * failing batch never rolls back the batches before it.
+ */
+@Service
+public class ProductImportService {
+
+	public static final int BATCH_SIZE = 1000;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProductImportService.class);
+
+	@Autowired
+	ProductService productService;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	Validator validator;
+
+	public BulkImportResultDto importProducts(List<ProductDto> productDtos) {
+		BulkImportResultDto result = new BulkImportResultDto();
+		ImportBatch batch = new ImportBatch();
+		int row = 0;
+		for (ProductDto productDto : productDtos) {
+			addRow(batch, ++row, productDto, result);
+		}
+		flush(batch, result);
+		return result;
+	}
+
+	/**
+	 * Imports newline delimited JSON, one ProductDto per line. The stream is
+	 * read line by line, so a malformed line only fails that row.
+	 */
+	public BulkImportResultDto importProducts(InputStream inputStream) throws IOException {
+		BulkImportResultDto result = new BulkImportResultDto();
+		ImportBatch batch = new ImportBatch();
+		ObjectReader productReader = objectMapper.readerFor(ProductDto.class);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+		String line;
+		int row = 0;
+		while ((line = reader.readLine()) != null) {
+			row++;
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			ProductDto productDto;
+			try {
+				productDto = productReader.readValue(line);
+			} catch (JsonProcessingException e) {
+				result.addError(row, "Malformed JSON: " + e.getOriginalMessage());
+				continue;
+			}
+			addRow(batch, row, productDto, result);
+		}
+		flush(batch, result);
+		return result;
+	}
+
+	private void addRow(ImportBatch batch, int row, ProductDto productDto, BulkImportResultDto result) {
+		if (productDto == null) {
+			result.addError(row, "Product must not be null.");
+			return;
+		}
+		Set<ConstraintViolation<ProductDto>> violations = validator.validate(productDto);
+		if (!violations.isEmpty()) {
+			ConstraintViolation<ProductDto> violation = violations.iterator().next();
+			result.addError(row, violation.getPropertyPath() + " " + violation.getMessage());
+			return;
+		}
+		batch.rows.add(row);
+		batch.productDtos.add(productDto);
+		if (batch.productDtos.size() == BATCH_SIZE) {
+			flush(batch, result);
+		}
+	}
+
+	private void flush(ImportBatch batch, BulkImportResultDto result) {
+		if (batch.productDtos.isEmpty()) {
+			return;
+		}
+		try {
+			result.add(productService.addProducts(batch.productDtos, batch.rows));
+		} catch (RuntimeException e) {
+			LOGGER.warn("Product import batch starting at row {} failed", batch.rows.get(0), e);
+			for (Integer row : batch.rows) {
+				result.addError(row, "Batch failed: " + e.getMessage());
+			}
+		}
+		batch.rows.clear();
+		batch.productDtos.clear();
+	}
+
+	private static final class ImportBatch {
+		private final List<Integer> rows = new ArrayList<>(BATCH_SIZE);
+		private final List<ProductDto> productDtos = new ArrayList<>(BATCH_SIZE);
+	}
+}
@@ -1,23 +1,105 @@
 package com.company.ecommerce.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.company.ecommerce.cache.CatalogVersion;
+import com.company.ecommerce.cache.ProductCache;
+import com.company.ecommerce.cache.ProductPageCache;
+import com.company.ecommerce.cache.ProductPageCache.CachedPage;
+import com.company.ecommerce.concurrency.OptimisticRetry;
+import com.company.ecommerce.dto.cache.CacheStatsDto;
+import com.company.ecommerce.dto.product.BulkImportResultDto;
 import com.company.ecommerce.dto.product.ProductDto;
+import com.company.ecommerce.dto.product.ProductPageDto;
+import com.company.ecommerce.dto.product.ProductSearchResultDto;
+import com.company.ecommerce.enums.ProductSort;
+import com.company.ecommerce.exception.runtime.BadRequestException;
+import com.company.ecommerce.exception.runtime.NotFoundException;
 import com.company.ecommerce.model.Category;
 import com.company.ecommerce.model.Product;
 import com.company.ecommerce.repository.ProductRepository;
+import com.company.ecommerce.search.PriceFacetIndex;
+import com.company.ecommerce.search.ProductSearchIndex;
+import com.company.ecommerce.search.ProductSearchIndex.SearchResult;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @Service
 public class ProductService {
 
+	public static final int MAX_PAGE_SIZE = 500;
+
+	private static final String CURSOR_SEPARATOR = ":";
+
+	private static final String PAGE_KEY_SEPARATOR = "|";
+
+	private static final int INDEX_BATCH_SIZE = 1000;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProductService.class);
+
 	@Autowired
 	private ProductRepository repository;
 
+	@Autowired
+	private ProductCache productCache;
+
+	@Autowired
+	private ProductPageCache productPageCache;
+
+	@Autowired
+	private ProductSearchIndex searchIndex;
+
+	@Autowired
+	private PriceFacetIndex priceFacetIndex;
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private OptimisticRetry optimisticRetry;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	private ProductDto getDtoFromProduct(Product product) {
 		ProductDto productDto = new ProductDto(product);
 		return productDto;
@@ -28,28 +110,369 @@ public class ProductService {
 		return product;
 	}
 
-	public List<ProductDto> listProducts() {
-		List<Product> products = repository.findAll();
-		List<ProductDto> productDtos = new ArrayList<>();
-		for (Product product : products) {
-			ProductDto productDto = getDtoFromProduct(product);
-			productDtos.add(productDto);
+	/**
+	 * Returns one page of products, optionally of a single category, ordered by
+	 * the given sort key. Pages are addressed by the opaque cursor returned with
+	 * the previous page (keyset on the sort key and id); when no cursor is given,
+	 * the optional zero based page number is used as a plain offset. Pages
+	 * already listed at the current catalog version are served from the page
+	 * and product caches.
+	 */
+	public ProductPageDto listProducts(int limit, String after, ProductSort sort, Integer page, Integer categoryId) {
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
 		}
-		return productDtos;
+		String pageKey = catalogVersion.get() + PAGE_KEY_SEPARATOR + limit + PAGE_KEY_SEPARATOR + after
+				+ PAGE_KEY_SEPARATOR + sort + PAGE_KEY_SEPARATOR + page + PAGE_KEY_SEPARATOR + categoryId;
+		CachedPage cachedPage = productPageCache.get(pageKey);
+		if (cachedPage != null) {
+			return new ProductPageDto(getProductDtosByIds(cachedPage.getProductIds()), cachedPage.getNextCursor());
+		}
+
+		List<ProductDto> productDtos;
+		if (after != null) {
+			// one extra row tells us whether there is a next page
+			productDtos = findNextDtos(decodeCursor(after, sort), sort, categoryId, PageRequest.of(0, limit + 1));
+		} else {
+			int pageNumber = page == null ? 0 : page;
+			if (pageNumber < 0) {
+				throw new BadRequestException("Page must not be negative.");
+			}
+			Pageable pageable = PageRequest.of(pageNumber, limit, getSort(sort));
+			productDtos = categoryId == null ? repository.findDtos(pageable)
+					: repository.findDtosByCategoryId(categoryId, pageable);
+		}
+
+		String nextCursor = null;
+		if (productDtos.size() > limit || (after == null && productDtos.size() == limit)) {
+			nextCursor = encodeCursor(productDtos.get(limit - 1), sort);
+		}
+		if (productDtos.size() > limit) {
+			productDtos = productDtos.subList(0, limit);
+		}
+		List<Integer> productIds = new ArrayList<>(productDtos.size());
+		for (ProductDto productDto : productDtos) {
+			productCache.put(productDto);
+			productIds.add(productDto.getId());
+		}
+		productPageCache.put(pageKey, productIds, nextCursor);
+		return new ProductPageDto(productDtos, nextCursor);
+	}
+
+	private List<ProductDto> findNextDtos(String[] cursor, ProductSort sort, Integer categoryId, Pageable pageable) {
+		Integer lastId = parseId(cursor[1]);
+		switch (sort) {
+		case price:
+			double lastPrice = parsePrice(cursor[0]);
+			return categoryId == null ? repository.findNextDtosByPrice(lastPrice, lastId, pageable)
+					: repository.findNextDtosByCategoryIdAndPrice(categoryId, lastPrice, lastId, pageable);
+		case name:
+			return categoryId == null ? repository.findNextDtosByName(cursor[0], lastId, pageable)
+					: repository.findNextDtosByCategoryIdAndName(categoryId, cursor[0], lastId, pageable);
+		default:
+			return categoryId == null ? repository.findNextDtosById(lastId, pageable)
+					: repository.findNextDtosByCategoryIdAndId(categoryId, lastId, pageable);
+		}
+	}
+
+	/**
+	 * Writes the whole catalog as newline delimited JSON, one ProductDto per
+	 * line. Rows are read over a cursor and detached once written, so memory use
+	 * does not grow with the catalog.
+	 */
+	@Transactional(readOnly = true)
+	public void exportProducts(OutputStream outputStream) throws IOException {
+		ObjectWriter writer = objectMapper.writerFor(ProductDto.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		generator.setRootValueSeparator(null);
+		try (Stream<Product> products = repository.streamAllOrderById()) {
+			int written = 0;
+			for (Product product : (Iterable<Product>) products::iterator) {
+				writer.writeValue(generator, getDtoFromProduct(product));
+				generator.writeRaw('\n');
+				entityManager.detach(product);
+				if (++written % ProductRepository.STREAM_FETCH_SIZE == 0) {
+					generator.flush();
+					entityManager.clear();
+				}
+			}
+		}
+		generator.close();
 	}
 
+	@Transactional
 	public Product addProduct(ProductDto productDto, Category category) {
 		Product product = getProductFromDto(productDto, category);
-		return repository.save(product);
+		Product savedProduct = repository.save(product);
+		categoryService.addToProductCount(category.getId(), 1);
+		afterCommit(() -> refreshIndexes(savedProduct));
+		return savedProduct;
 	}
 
-	public Product updateProduct(Integer productID, ProductDto productDto, Category category) {
-		Product product = getProductFromDto(productDto, category);
-		product.setId(productID);
-		return repository.save(product);
+	/**
+	 * Inserts one import batch and returns its outcome. Categories are resolved
+	 * with a single query and the rows are written through JDBC batching; rows
+	 * referencing an unknown category are reported as errors instead. Callers
+	 * count the outcome only once this has returned, that is once the batch is
+	 * committed.
+	 */
+	@Transactional
+	public BulkImportResultDto addProducts(List<ProductDto> productDtos, List<Integer> rows) {
+		Set<Integer> categoryIds = new HashSet<>();
+		for (ProductDto productDto : productDtos) {
+			categoryIds.add(productDto.getCategoryId());
+		}
+		Map<Integer, Category> categoriesById = new HashMap<>();
+		for (Category category : categoryService.findAllById(categoryIds)) {
+			categoriesById.put(category.getId(), category);
+		}
+
+		List<Product> products = new ArrayList<>(productDtos.size());
+		BulkImportResultDto batchResult = new BulkImportResultDto();
+		for (int i = 0; i < productDtos.size(); i++) {
+			ProductDto productDto = productDtos.get(i);
+			Category category = categoriesById.get(productDto.getCategoryId());
+			if (category == null) {
+				batchResult.addError(rows.get(i), "Category with id " + productDto.getCategoryId() + " not found.");
+			} else {
+				products.add(getProductFromDto(productDto, category));
+			}
+		}
+		repository.saveAll(products);
+		Map<Integer, Long> addedPerCategory = new HashMap<>();
+		for (Product product : products) {
+			addedPerCategory.merge(product.getCategory().getId(), 1L, Long::sum);
+		}
+		for (Map.Entry<Integer, Long> added : addedPerCategory.entrySet()) {
+			categoryService.addToProductCount(added.getKey(), added.getValue());
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		batchResult.addImported(products.size());
+		afterCommit(() -> {
+			for (Product product : products) {
+				searchIndex.index(product);
+				priceFacetIndex.index(product);
+			}
+			catalogVersion.increment();
+		});
+		return batchResult;
+	}
+
+	/**
+	 * Replaces the product with the given id. When the product moves to another
+	 * category, the product counts of both categories are adjusted. A price change
+	 * is carried into the cart summaries. The replacement is written against the
+	 * version it was read at and is applied again if the product changed in
+	 * between.
+	 */
+	public Product updateProduct(Integer productID, ProductDto productDto, Category category)
+			throws NotFoundException {
+		return optimisticRetry.execute("updateProduct", () -> replaceProduct(productID, productDto, category));
 	}
 
+	private Product replaceProduct(Integer productID, ProductDto productDto, Category category) {
+		Optional<Product> productOptional = repository.findById(productID);
+		if (!productOptional.isPresent()) {
+			throw new NotFoundException("Product with id " + productID + " not found.");
+		}
+		Product product = productOptional.get();
+		Integer previousCategoryId = product.getCategory().getId();
+		double previousPrice = product.getPrice();
+		product.setName(productDto.getName());
+		product.setImageURL(productDto.getImageURL());
+		product.setPrice(productDto.getPrice());
+		product.setDescription(productDto.getDescription());
+		product.setCategory(category);
+		Product savedProduct = repository.save(product);
+		if (savedProduct.getPrice() != previousPrice) {
+			cartService.productUpdated(savedProduct, previousPrice);
+		}
+		if (!previousCategoryId.equals(category.getId())) {
+			categoryService.addToProductCount(previousCategoryId, -1);
+			categoryService.addToProductCount(category.getId(), 1);
+		}
+		afterCommit(() -> refreshIndexes(savedProduct));
+		return savedProduct;
+	}
+
+	/**
+	 * Loads the product itself, for callers that write it or attach it to a cart
+	 * or order line. The cache only holds snapshots, which would carry a stale
+	 * version and stock.
+	 */
 	public Optional<Product> getProductById(Integer productId) {
 		return repository.findById(productId);
 	}
+
+	public ProductSearchResultDto searchProducts(String query, int page, int size) {
+		if (query == null || query.trim().isEmpty()) {
+			throw new BadRequestException("Search query must not be empty.");
+		}
+		if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Page must not be negative and size must be between 1 and "
+					+ MAX_PAGE_SIZE + ".");
+		}
+		SearchResult result = searchIndex.search(query, page, size);
+		return new ProductSearchResultDto(getProductDtosByIds(result.getProductIds()), result.getTotalHits());
+	}
+
+	/**
+	 * Loads the products with the given ids in the same order, skipping ids that
+	 * no longer exist, with a single query. Like getProductById, this bypasses
+	 * the cache because the products are attached to cart lines.
+	 */
+	public List<Product> getProductsByIds(List<Integer> productIds) {
+		Map<Integer, Product> productsById = new HashMap<>();
+		for (Product product : repository.findAllById(productIds)) {
+			productsById.put(product.getId(), product);
+		}
+		List<Product> products = new ArrayList<>();
+		for (Integer productId : productIds) {
+			Product product = productsById.get(productId);
+			if (product != null) {
+				products.add(product);
+			}
+		}
+		return products;
+	}
+
+	/**
+	 * Returns snapshots of the products with the given ids in the same order,
+	 * skipping ids that no longer exist. Cached snapshots are used as is and the
+	 * rest are loaded with a single query.
+	 */
+	public List<ProductDto> getProductDtosByIds(List<Integer> productIds) {
+		Map<Integer, ProductDto> productsById = new HashMap<>();
+		List<Integer> missingIds = new ArrayList<>();
+		for (Integer productId : productIds) {
+			ProductDto cachedProduct = productCache.get(productId);
+			if (cachedProduct != null) {
+				productsById.put(productId, cachedProduct);
+			} else {
+				missingIds.add(productId);
+			}
+		}
+		if (!missingIds.isEmpty()) {
+			for (Product product : repository.findAllById(missingIds)) {
+				ProductDto productDto = getDtoFromProduct(product);
+				productCache.put(productDto);
+				productsById.put(productDto.getId(), productDto);
+			}
+		}
+		List<ProductDto> productDtos = new ArrayList<>();
+		for (Integer productId : productIds) {
+			ProductDto productDto = productsById.get(productId);
+			if (productDto != null) {
+				productDtos.add(productDto);
+			}
+		}
+		return productDtos;
+	}
+
+	/**
+	 * Builds the in-memory search index and price facets once the application is
+	 * up, reading the catalog in keyset batches so it is never held in memory as
+	 * a whole.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildIndexes() {
+		long start = System.currentTimeMillis();
+		searchIndex.clear();
+		priceFacetIndex.clear();
+		Integer lastId = 0;
+		List<Product> products;
+		do {
+			products = repository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, INDEX_BATCH_SIZE));
+			for (Product product : products) {
+				searchIndex.index(product);
+				priceFacetIndex.index(product);
+				lastId = product.getId();
+			}
+		} while (products.size() == INDEX_BATCH_SIZE);
+		LOGGER.info("Indexed {} products for search and facets in {} ms", searchIndex.size(),
+				System.currentTimeMillis() - start);
+	}
+
+	public CacheStatsDto getCacheStats() {
+		return productCache.getStats();
+	}
+
+	/**
+	 * Brings the cache and the in-memory indexes in line with a committed
+	 * product write.
+	 */
+	private void refreshIndexes(Product product) {
+		productCache.put(getDtoFromProduct(product));
+		searchIndex.index(product);
+		priceFacetIndex.index(product);
+		catalogVersion.increment();
+	}
+
+	private void afterCommit(Runnable action) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+
+	private Sort getSort(ProductSort sort) {
+		if (sort == ProductSort.id) {
+			return Sort.by("id");
+		}
+		return Sort.by(sort.name()).and(Sort.by("id"));
+	}
+
+	private String encodeCursor(ProductDto product, ProductSort sort) {
+		String key;
+		switch (sort) {
+		case price:
+			key = Double.toString(product.getPrice());
+			break;
+		case name:
+			key = product.getName();
+			break;
+		default:
+			key = "";
+		}
+		String cursor = key + CURSOR_SEPARATOR + product.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String[] decodeCursor(String after, ProductSort sort) {
+		String cursor;
+		try {
+			cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor: " + after);
+		}
+		// the key itself may contain the separator, the id never does
+		int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+		if (separator < 0 || (sort == ProductSort.id && separator != 0)) {
+			throw new BadRequestException("Invalid cursor: " + after);
+		}
+		return new String[] { cursor.substring(0, separator), cursor.substring(separator + 1) };
+	}
+
+	private Integer parseId(String id) {
+		try {
+			return Integer.valueOf(id);
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid cursor id: " + id);
+		}
+	}
+
+	private double parsePrice(String price) {
+		try {
+			return Double.parseDouble(price);
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid cursor price: " + price);
+		}
+	}
 }
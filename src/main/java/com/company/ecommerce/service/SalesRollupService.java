@@ -0,0 +1,299 @@
+package com.company.ecommerce.service;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.company.ecommerce.dto.analytics.SalesBackfillDto;
+import com.company.ecommerce.dto.analytics.SalesReportDto;
+import com.company.ecommerce.dto.analytics.SalesRowDto;
+import com.company.ecommerce.dto.checkout.CheckoutItemDto;
+import com.company.ecommerce.dto.order.OrderPlacedEventDto;
+import com.company.ecommerce.enums.SalesGroupBy;
+import com.company.ecommerce.exception.runtime.BadRequestException;
+import com.company.ecommerce.model.OutboxEvent;
+import com.company.ecommerce.model.SalesCategoryDay;
+import com.company.ecommerce.model.SalesProductDay;
+import com.company.ecommerce.model.SalesRollupEvent;
+import com.company.ecommerce.pricing.PriceCalculator;
+import com.company.ecommerce.repository.ProductRepository;
+import com.company.ecommerce.repository.SalesCategoryDayRepository;
+import com.company.ecommerce.repository.SalesProductDayRepository;
+import com.company.ecommerce.repository.SalesRollupEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Maintains the sales rollups: units and revenue per product and day and per
+ * category and day, in the zone-id time zone. They are kept up to date from
+ * the OrderPlaced events of the outbox, a relay batch at a time, so checkouts
+ * never contend on the rows of popular products. The ids of counted events are
+ * stored with the rollup changes, so an event delivered twice is counted once.
+ * Orders placed before the rollups existed are added by a backfill, which
+ * rewrites the rollups of each day from the order tables.
+ */
+@Service
+public class SalesRollupService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SalesRollupService.class);
+
+	/**
+	 * Placed orders created between start and end, skipping orders whose
+	 * OrderPlaced event has not been counted yet, as counting it will add them.
+	 */
+	private static final String PLACED_ORDERS_CONDITION_SQL = "where o.created_date >= :start and o.created_date < :end "
+			+ "and (o.status is null or o.status = 'placed') "
+			+ "and not exists (select 1 from outbox_events e where e.aggregate_type = 'order' and e.aggregate_id = o.id "
+			+ "and e.event_type = 'OrderPlaced' and e.id not in (select r.event_id from sales_rollup_events r)) ";
+
+	private static final String INSERT_PRODUCT_DAYS_SQL = "insert into sales_product_day (sales_date, product_id, units, revenue_minor) "
+			+ "select :day, i.product_id, sum(i.quantity), sum(i.quantity * " + PriceCalculator.ITEM_PRICE_MINOR_UNITS_SQL
+			+ ") from orderitems i join orders o on o.id = i.order_id " + PLACED_ORDERS_CONDITION_SQL
+			+ "group by i.product_id";
+
+	private static final String INSERT_CATEGORY_DAYS_SQL = "insert into sales_category_day (sales_date, category_id, units, revenue_minor) "
+			+ "select :day, p.category_id, sum(i.quantity), sum(i.quantity * " + PriceCalculator.ITEM_PRICE_MINOR_UNITS_SQL
+			+ ") from orderitems i join orders o on o.id = i.order_id join products p on p.id = i.product_id "
+			+ PLACED_ORDERS_CONDITION_SQL + "group by p.category_id";
+
+	@Autowired
+	SalesProductDayRepository productDayRepository;
+
+	@Autowired
+	SalesCategoryDayRepository categoryDayRepository;
+
+	@Autowired
+	SalesRollupEventRepository eventRepository;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	PriceCalculator priceCalculator;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Value("${ecommerce.analytics.zone-id:UTC}")
+	ZoneId zoneId;
+
+	@Value("${ecommerce.analytics.max-days:366}")
+	int maxDays;
+
+	@Value("${ecommerce.analytics.applied-event-retention-hours:24}")
+	long appliedEventRetentionHours;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	void init() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Adds the orders of the OrderPlaced events not counted yet to the
+	 * rollups, with one update per product and day and per category and day
+	 * of the batch.
+	 * 
+	 * @return the number of events counted
+	 */
+	@Transactional
+	public int apply(List<OutboxEvent> events) throws IOException {
+		List<Integer> eventIds = new ArrayList<>();
+		for (OutboxEvent event : events) {
+			if (OutboxService.ORDER_PLACED.equals(event.getEventType())) {
+				eventIds.add(event.getId());
+			}
+		}
+		if (eventIds.isEmpty()) {
+			return 0;
+		}
+		Set<Integer> counted = new HashSet<>(eventRepository.findEventIdsIn(eventIds));
+		List<OrderPlacedEventDto> orders = new ArrayList<>();
+		List<SalesRollupEvent> applied = new ArrayList<>();
+		Date now = new Date();
+		for (OutboxEvent event : events) {
+			if (OutboxService.ORDER_PLACED.equals(event.getEventType()) && counted.add(event.getId())) {
+				orders.add(objectMapper.readValue(event.getPayload(), OrderPlacedEventDto.class));
+				applied.add(new SalesRollupEvent(event.getId(), now));
+			}
+		}
+		if (orders.isEmpty()) {
+			return 0;
+		}
+
+		Map<SalesProductDay.Key, SalesProductDay> productSales = new LinkedHashMap<>();
+		Set<Integer> productIds = new HashSet<>();
+		for (OrderPlacedEventDto order : orders) {
+			Date day = java.sql.Date.valueOf(order.getCreatedDate().toInstant().atZone(zoneId).toLocalDate());
+			for (CheckoutItemDto item : order.getItems()) {
+				Integer productId = (int) item.getProductId();
+				productIds.add(productId);
+				SalesProductDay sales = productSales.computeIfAbsent(new SalesProductDay.Key(day, productId),
+						key -> new SalesProductDay(day, productId, 0, 0));
+				sales.setUnits(sales.getUnits() + item.getQuantity());
+				sales.setRevenueMinor(
+						sales.getRevenueMinor() + priceCalculator.lineTotal(item.getPrice(), item.getQuantity()));
+			}
+		}
+		Map<Integer, Integer> categoryIds = new HashMap<>();
+		for (Object[] row : productRepository.findCategoryIdsByIdIn(productIds)) {
+			categoryIds.put((Integer) row[0], (Integer) row[1]);
+		}
+		Map<SalesCategoryDay.Key, SalesCategoryDay> categorySales = new LinkedHashMap<>();
+		for (SalesProductDay sales : productSales.values()) {
+			Integer categoryId = categoryIds.get(sales.getProductId());
+			if (categoryId == null) {
+				// the product was deleted since, so is only counted per product
+				continue;
+			}
+			SalesCategoryDay category = categorySales.computeIfAbsent(
+					new SalesCategoryDay.Key(sales.getDay(), categoryId),
+					key -> new SalesCategoryDay(sales.getDay(), categoryId, 0, 0));
+			category.setUnits(category.getUnits() + sales.getUnits());
+			category.setRevenueMinor(category.getRevenueMinor() + sales.getRevenueMinor());
+		}
+
+		// rows are updated in key order, so concurrent batches cannot deadlock
+		List<SalesProductDay> productRows = new ArrayList<>(productSales.values());
+		productRows.sort(Comparator.comparing(SalesProductDay::getDay).thenComparing(SalesProductDay::getProductId));
+		for (SalesProductDay sales : productRows) {
+			if (productDayRepository.addSales(sales.getDay(), sales.getProductId(), sales.getUnits(),
+					sales.getRevenueMinor()) == 0) {
+				productDayRepository.save(sales);
+			}
+		}
+		List<SalesCategoryDay> categoryRows = new ArrayList<>(categorySales.values());
+		categoryRows
+				.sort(Comparator.comparing(SalesCategoryDay::getDay).thenComparing(SalesCategoryDay::getCategoryId));
+		for (SalesCategoryDay sales : categoryRows) {
+			if (categoryDayRepository.addSales(sales.getDay(), sales.getCategoryId(), sales.getUnits(),
+					sales.getRevenueMinor()) == 0) {
+				categoryDayRepository.save(sales);
+			}
+		}
+		eventRepository.saveAll(applied);
+		return applied.size();
+	}
+
+	/**
+	 * Reads the sales of the days from the rollups, per product, per category
+	 * or per day.
+	 */
+	public SalesReportDto getSales(LocalDate from, LocalDate to, SalesGroupBy groupBy) {
+		checkRange(from, to);
+		Date fromDay = java.sql.Date.valueOf(from);
+		Date toDay = java.sql.Date.valueOf(to);
+		List<Object[]> rows;
+		switch (groupBy) {
+		case category:
+			rows = categoryDayRepository.sumByCategory(fromDay, toDay);
+			break;
+		case day:
+			rows = categoryDayRepository.sumByDay(fromDay, toDay);
+			break;
+		default:
+			rows = productDayRepository.sumByProduct(fromDay, toDay);
+		}
+		List<SalesRowDto> sales = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			long units = ((Number) row[1]).longValue();
+			double revenue = priceCalculator.toMajorUnits(((Number) row[2]).longValue());
+			if (groupBy == SalesGroupBy.day) {
+				LocalDate day = new java.sql.Date(((Date) row[0]).getTime()).toLocalDate();
+				sales.add(new SalesRowDto(null, day, units, revenue));
+			} else {
+				sales.add(new SalesRowDto((Integer) row[0], null, units, revenue));
+			}
+		}
+		return new SalesReportDto(from, to, groupBy, sales);
+	}
+
+	/**
+	 * Rewrites the rollups of each day from the placed orders of the day, one
+	 * day per transaction, so a failed backfill can simply be run again.
+	 * Orders whose OrderPlaced event has not been counted yet are left to the
+	 * event.
+	 */
+	public SalesBackfillDto backfill(LocalDate from, LocalDate to) {
+		checkRange(from, to);
+		long start = System.nanoTime();
+		long factor = priceCalculator.getFactor();
+		boolean halfEven = priceCalculator.isHalfEven();
+		long productRows = 0;
+		long categoryRows = 0;
+		for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+			Date day = java.sql.Date.valueOf(date);
+			Timestamp dayStart = Timestamp.from(date.atStartOfDay(zoneId).toInstant());
+			Timestamp dayEnd = Timestamp.from(date.plusDays(1).atStartOfDay(zoneId).toInstant());
+			int[] written = transactionTemplate.execute(status -> {
+				productDayRepository.deleteByDay(day);
+				categoryDayRepository.deleteByDay(day);
+				MapSqlParameterSource parameters = new MapSqlParameterSource().addValue("day", day)
+						.addValue("start", dayStart).addValue("end", dayEnd).addValue("factor", factor)
+						.addValue("halfEven", halfEven);
+				return new int[] { jdbcTemplate.update(INSERT_PRODUCT_DAYS_SQL, parameters),
+						jdbcTemplate.update(INSERT_CATEGORY_DAYS_SQL, parameters) };
+			});
+			productRows += written[0];
+			categoryRows += written[1];
+		}
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		LOGGER.info("Backfilled sales rollups from {} to {}: {} product rows, {} category rows in {} ms", from, to,
+				productRows, categoryRows, millis);
+		return new SalesBackfillDto(from, to, productRows, categoryRows, millis);
+	}
+
+	/**
+	 * Forgets counted events that have left the outbox for a while, as they
+	 * can no longer be delivered again.
+	 */
+	@Scheduled(fixedDelayString = "${ecommerce.analytics.applied-event-cleanup-interval-ms:3600000}")
+	public void purgeAppliedEvents() {
+		Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(appliedEventRetentionHours));
+		int deleted = eventRepository.deletePublishedBefore(cutoff);
+		if (deleted > 0) {
+			LOGGER.debug("Purged {} counted sales events", deleted);
+		}
+	}
+
+	private void checkRange(LocalDate from, LocalDate to) {
+		if (to.isBefore(from)) {
+			throw new BadRequestException("to must not be before from.");
+		}
+		if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+			throw new BadRequestException("At most " + maxDays + " days can be requested at once.");
+		}
+	}
+}
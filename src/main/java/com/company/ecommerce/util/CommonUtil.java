@@ -1,8 +1,21 @@
 package com.company.ecommerce.util;
 
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+
 public class CommonUtil {
 
 	public static boolean notNull(Object obj) {
 		return obj != null;
 	}
+
+	public static HttpHeaders cacheHeaders(String eTag, long maxAgeSeconds) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag(eTag);
+		headers.setCacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).mustRevalidate());
+		return headers;
+	}
+
 }
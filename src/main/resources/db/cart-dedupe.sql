@@ -0,0 +1,14 @@
+-- Collapses duplicate cart lines of the same user and product, left over from
+-- before the uk_cart_user_product constraint, into the oldest line with the
+-- summed quantity. Runs on every start and is a no-op once there are no
+-- duplicates. On a database that still has duplicates, the schema update
+-- cannot add the constraint on the first start; it is added on the next one.
+UPDATE cart c SET quantity = (
+    SELECT SUM(d.quantity) FROM cart d WHERE d.user_id = c.user_id AND d.product_id = c.product_id)
+WHERE c.id = (
+    SELECT MIN(d.id) FROM cart d WHERE d.user_id = c.user_id AND d.product_id = c.product_id)
+  AND EXISTS (
+    SELECT 1 FROM cart d WHERE d.user_id = c.user_id AND d.product_id = c.product_id AND d.id <> c.id);
+
+DELETE FROM cart c WHERE c.id > (
+    SELECT MIN(d.id) FROM cart d WHERE d.user_id = c.user_id AND d.product_id = c.product_id);
@@ -0,0 +1,102 @@
+package com.company.ecommerce.cart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.company.ecommerce.enums.Role;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.Category;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.repository.CartRepository;
+import com.company.ecommerce.repository.CategoryRepository;
+import com.company.ecommerce.repository.ProductRepository;
+import com.company.ecommerce.repository.UserRepository;
+
+// one cart held at a time, flushed only when the tests call flush
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:write-behind-cart-store-tests",
+		"ecommerce.cart.storage=memory", "ecommerce.cart.memory.max-carts=1", "ecommerce.cart.memory.stripes=1",
+		"ecommerce.cart.memory.flush-interval-ms=3600000" })
+class WriteBehindCartStoreTests {
+
+	@Autowired
+	WriteBehindCartStore store;
+
+	@Autowired
+	CartRepository cartRepository;
+
+	@Autowired
+	CategoryRepository categoryRepository;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Test
+	void lineRemovedAndAddedAgainIsFlushedDeleteFirst() {
+		Product product = newProduct("readded");
+		User user = newUser("readded");
+		Cart first = store.add(user, product, 2);
+		store.flush();
+
+		store.delete(user, first.getId());
+		Cart second = store.add(user, product, 3);
+		store.flush();
+
+		List<Cart> rows = cartRepository.findAllByUserId(user.getId());
+		assertEquals(1, rows.size());
+		assertEquals(second.getId(), rows.get(0).getId());
+		assertEquals(3, rows.get(0).getQuantity());
+	}
+
+	@Test
+	void lineAddedAndChangedBeforeAFlushIsInsertedWithItsLastQuantity() {
+		Product product = newProduct("changed");
+		User user = newUser("changed");
+		Cart line = store.add(user, product, 1);
+		store.update(user, line.getId(), 5);
+		store.flush();
+
+		List<Cart> rows = cartRepository.findAllByUserId(user.getId());
+		assertEquals(1, rows.size());
+		assertEquals(5, rows.get(0).getQuantity());
+
+		store.update(user, line.getId(), 4);
+		store.flush();
+		assertEquals(4, cartRepository.findAllByUserId(user.getId()).get(0).getQuantity());
+	}
+
+	@Test
+	void cartDroppedFromMemoryKeepsItsChangesUntilFlushed() {
+		Product product = newProduct("spilled");
+		User parked = newUser("parked");
+		User holder = newUser("holder");
+		store.add(parked, product, 2);
+		// holding the second cart parks the first, its change is still unwritten
+		store.add(holder, product, 1);
+		assertTrue(cartRepository.findAllByUserId(parked.getId()).isEmpty());
+
+		store.flush();
+
+		assertEquals(2, cartRepository.findAllByUserId(parked.getId()).get(0).getQuantity());
+		assertEquals(1, cartRepository.findAllByUserId(holder.getId()).get(0).getQuantity());
+		assertEquals(2, store.findByUser(parked).get(0).getQuantity());
+	}
+
+	private Product newProduct(String name) {
+		Category category = categoryRepository.save(new Category(name, "description", "image"));
+		return productRepository.save(new Product(name, "image", 10, "description", category));
+	}
+
+	private User newUser(String name) {
+		return userRepository.save(new User("first", "last", name + "@example.com", Role.user, "secret"));
+	}
+}
@@ -0,0 +1,8 @@
+package com.company.ecommerce.idempotency;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:database-idempotency-filter-tests;LOCK_TIMEOUT=30000",
+		"ecommerce.idempotency.storage=database" })
+class DatabaseIdempotencyFilterTests extends IdempotencyFilterTests {
+}
@@ -0,0 +1,156 @@
+package com.company.ecommerce.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.company.ecommerce.dto.cart.AddToCartDto;
+import com.company.ecommerce.enums.Role;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.Category;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.repository.CategoryRepository;
+import com.company.ecommerce.repository.OrderRepository;
+import com.company.ecommerce.repository.ProductRepository;
+import com.company.ecommerce.repository.UserRepository;
+import com.company.ecommerce.service.CartService;
+
+/**
+ * Run against each store by DatabaseIdempotencyFilterTests and
+ * InMemoryIdempotencyFilterTests.
+ */
+@AutoConfigureMockMvc
+abstract class IdempotencyFilterTests {
+
+	private static final int DUPLICATES = 8;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	IdempotencyStore store;
+
+	@Autowired
+	CartService cartService;
+
+	@Autowired
+	CategoryRepository categoryRepository;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Test
+	void repeatedRequestIsReplayedWithoutRunningAgain() throws Exception {
+		Product product = newProduct("replay");
+		User user = newUser("replay");
+		String body = "{\"productId\":" + product.getId() + ",\"quantity\":2}";
+
+		MockHttpServletResponse first = addToCart(user, "replay-key", body);
+		MockHttpServletResponse second = addToCart(user, "replay-key", body);
+
+		assertEquals(201, first.getStatus());
+		assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals(201, second.getStatus());
+		assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals(first.getContentAsString(), second.getContentAsString());
+		List<Cart> lines = cartService.getCartItems(user);
+		assertEquals(1, lines.size());
+		assertEquals(2, lines.get(0).getQuantity());
+	}
+
+	@Test
+	void keyReusedWithAnotherBodyIsRejected() throws Exception {
+		Product product = newProduct("mismatch");
+		User user = newUser("mismatch");
+
+		addToCart(user, "mismatch-key", "{\"productId\":" + product.getId() + ",\"quantity\":1}");
+		MockHttpServletResponse reused = addToCart(user, "mismatch-key",
+				"{\"productId\":" + product.getId() + ",\"quantity\":5}");
+
+		assertEquals(422, reused.getStatus());
+		assertEquals(1, cartService.getCartItems(user).get(0).getQuantity());
+	}
+
+	@Test
+	void concurrentDuplicatesPlaceOneOrder() throws Exception {
+		Product product = newProduct("coalesce");
+		User user = newUser("coalesce");
+		AddToCartDto addToCartDto = new AddToCartDto();
+		addToCartDto.setProductId(product.getId());
+		addToCartDto.setQuantity(1);
+		cartService.addToCart(addToCartDto, product, user);
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(DUPLICATES);
+		List<Future<MockHttpServletResponse>> checkouts = new ArrayList<>();
+		for (int i = 0; i < DUPLICATES; i++) {
+			checkouts.add(executor.submit(() -> {
+				start.await();
+				return mockMvc.perform(post("/orders").param("userId", user.getId().toString())
+						.header(IdempotencyFilter.HEADER, "checkout-key")).andReturn().getResponse();
+			}));
+		}
+		start.countDown();
+		List<MockHttpServletResponse> responses = new ArrayList<>();
+		for (Future<MockHttpServletResponse> checkout : checkouts) {
+			responses.add(checkout.get());
+		}
+		executor.shutdown();
+
+		for (MockHttpServletResponse response : responses) {
+			assertEquals(201, response.getStatus());
+			assertArrayEquals(responses.get(0).getContentAsByteArray(), response.getContentAsByteArray());
+		}
+		assertEquals(1, orderRepository.findIdsByUser(user, PageRequest.of(0, 10)).size());
+	}
+
+	@Test
+	void storedResponseIsNotOverwritten() {
+		byte[] firstBody = "first".getBytes(StandardCharsets.UTF_8);
+		store.put("stored-key", new IdempotentResponse("a", 201, null, null, firstBody));
+		store.put("stored-key", new IdempotentResponse("b", 201, null, null, new byte[0]));
+
+		IdempotentResponse stored = store.get("stored-key");
+		assertEquals("a", stored.getFingerprint());
+		assertArrayEquals(firstBody, stored.getBody());
+	}
+
+	private MockHttpServletResponse addToCart(User user, String key, String body) throws Exception {
+		return mockMvc.perform(post("/carts").param("userId", user.getId().toString())
+				.header(IdempotencyFilter.HEADER, key).contentType(MediaType.APPLICATION_JSON).content(body))
+				.andReturn().getResponse();
+	}
+
+	private Product newProduct(String name) {
+		Category category = categoryRepository.save(new Category(name, "description", "image"));
+		return productRepository.save(new Product(name, "image", 10, "description", category));
+	}
+
+	private User newUser(String name) {
+		return userRepository.save(new User("first", "last", name + "@example.com", Role.user, "secret"));
+	}
+}
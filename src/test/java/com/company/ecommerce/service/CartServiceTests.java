@@ -0,0 +1,111 @@
+package com.company.ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.company.ecommerce.cart.DatabaseCartStore;
+import com.company.ecommerce.dto.cart.AddToCartDto;
+import com.company.ecommerce.dto.cart.CartOperationDto;
+import com.company.ecommerce.dto.cart.CartSummaryDto;
+import com.company.ecommerce.dto.product.ProductDto;
+import com.company.ecommerce.enums.CartOperationType;
+import com.company.ecommerce.enums.Role;
+import com.company.ecommerce.model.Cart;
+import com.company.ecommerce.model.Category;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.pricing.PriceCalculator;
+import com.company.ecommerce.repository.CartSummaryRepository;
+import com.company.ecommerce.repository.CategoryRepository;
+import com.company.ecommerce.repository.UserRepository;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cart-service-tests")
+class CartServiceTests {
+
+	@Autowired
+	CartService cartService;
+
+	@Autowired
+	ProductService productService;
+
+	@Autowired
+	DatabaseCartStore cartStore;
+
+	@Autowired
+	PriceCalculator priceCalculator;
+
+	@Autowired
+	CategoryRepository categoryRepository;
+
+	@Autowired
+	CartSummaryRepository cartSummaryRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Test
+	void summaryFollowsTheLinesThroughUpsertPatchAndPriceChange() {
+		Category category = categoryRepository.save(new Category("summary", "description", "image"));
+		Product hat = productService.addProduct(new ProductDto(null, "hat", "image", 2.345, "description",
+				category.getId()), category);
+		Product shoe = productService.addProduct(new ProductDto(null, "shoe", "image", 10, "description",
+				category.getId()), category);
+		User user = userRepository.save(new User("first", "last", "summary@example.com", Role.user, "secret"));
+
+		addToCart(user, hat, 2);
+		addToCart(user, hat, 1);
+		assertEquals(1, cartService.getCartItems(user).size());
+		assertSummary(user, 3, 7.05);
+
+		Map<Integer, Product> products = new HashMap<>();
+		products.put(hat.getId(), hat);
+		products.put(shoe.getId(), shoe);
+		cartService.applyCartOperations(user,
+				Arrays.asList(new CartOperationDto(CartOperationType.add, shoe.getId(), 2),
+						new CartOperationDto(CartOperationType.set, hat.getId(), 5),
+						new CartOperationDto(CartOperationType.remove, shoe.getId(), null),
+						new CartOperationDto(CartOperationType.add, shoe.getId(), 1)),
+				products);
+		assertSummary(user, 6, 21.75);
+
+		productService.updateProduct(hat.getId(),
+				new ProductDto(null, "hat", "image", 1.005, "description", category.getId()), category);
+		assertSummary(user, 6, 15.05);
+
+		cartSummaryRepository.deleteAll();
+		cartStore.rebuildSummaries();
+		assertSummary(user, 6, 15.05);
+	}
+
+	/**
+	 * Checks the summary against the given totals and against the totals of the
+	 * cart lines themselves.
+	 */
+	private void assertSummary(User user, long itemCount, double subtotal) {
+		List<Cart> lines = cartService.getCartItems(user);
+		long lineItemCount = 0;
+		for (Cart line : lines) {
+			lineItemCount += line.getQuantity();
+		}
+		CartSummaryDto summary = cartService.getCartSummary(user);
+		assertEquals(itemCount, lineItemCount);
+		assertEquals(subtotal, priceCalculator.toMajorUnits(priceCalculator.total(lines)));
+		assertEquals(itemCount, summary.getItemCount());
+		assertEquals(subtotal, summary.getSubtotal());
+	}
+
+	private void addToCart(User user, Product product, int quantity) {
+		AddToCartDto addToCartDto = new AddToCartDto();
+		addToCartDto.setProductId(product.getId());
+		addToCartDto.setQuantity(quantity);
+		cartService.addToCart(addToCartDto, product, user);
+	}
+}
@@ -0,0 +1,177 @@
+package com.company.ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.company.ecommerce.dto.cart.AddToCartDto;
+import com.company.ecommerce.dto.cart.CartOperationDto;
+import com.company.ecommerce.enums.CartOperationType;
+import com.company.ecommerce.enums.OrderStatus;
+import com.company.ecommerce.enums.Role;
+import com.company.ecommerce.exception.runtime.OutOfStockException;
+import com.company.ecommerce.model.Category;
+import com.company.ecommerce.model.Order;
+import com.company.ecommerce.model.OrderItem;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.repository.CategoryRepository;
+import com.company.ecommerce.repository.OrderItemsRepository;
+import com.company.ecommerce.repository.OrderRepository;
+import com.company.ecommerce.repository.ProductRepository;
+import com.company.ecommerce.repository.UserRepository;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:inventory-concurrency-tests;LOCK_TIMEOUT=30000" })
+class InventoryConcurrencyTests {
+
+	private static final int STOCK = 100;
+	private static final int CHECKOUTS = 2000;
+	private static final int THREADS = 64;
+
+	@Autowired
+	OrderService orderService;
+
+	@Autowired
+	CartService cartService;
+
+	@Autowired
+	InventoryService inventoryService;
+
+	@Autowired
+	CategoryRepository categoryRepository;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Autowired
+	OrderItemsRepository orderItemsRepository;
+
+	@Test
+	void concurrentCheckoutsOfOneProductNeverOversell() throws Exception {
+		Product product = newProduct("flash sale", STOCK);
+		List<User> users = newUsers("flash", CHECKOUTS);
+		for (User user : users) {
+			addToCart(user, product);
+		}
+
+		AtomicInteger placed = new AtomicInteger();
+		AtomicInteger outOfStock = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> checkouts = new ArrayList<>(CHECKOUTS);
+		for (User user : users) {
+			checkouts.add(executor.submit(() -> {
+				start.await();
+				try {
+					orderService.placeOrder(user);
+					placed.incrementAndGet();
+				} catch (OutOfStockException e) {
+					outOfStock.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> checkout : checkouts) {
+			// rethrows anything but running out of stock
+			checkout.get();
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+
+		assertEquals(STOCK, placed.get());
+		assertEquals(CHECKOUTS - STOCK, outOfStock.get());
+		assertEquals(0, inventoryService.getStock(product.getId()).getStock());
+		int sold = 0;
+		for (OrderItem orderItem : orderItemsRepository.findAll()) {
+			if (orderItem.getProduct().getId().equals(product.getId())) {
+				sold += orderItem.getQuantity();
+			}
+		}
+		assertEquals(STOCK, sold);
+	}
+
+	@Test
+	void failedPendingOrderReturnsItsReservation() {
+		Product product = newProduct("reserved", 1);
+		List<User> users = newUsers("reserved", 2);
+		addToCart(users.get(0), product);
+		addToCart(users.get(1), product);
+
+		Order order = orderService.createPendingOrder(users.get(0));
+		assertEquals(0, inventoryService.getStock(product.getId()).getStock());
+		assertThrows(OutOfStockException.class, () -> orderService.createPendingOrder(users.get(1)));
+
+		orderService.failPendingOrder(order.getId());
+		assertEquals(OrderStatus.failed, orderRepository.findById(order.getId()).get().getStatus());
+		assertEquals(1, inventoryService.getStock(product.getId()).getStock());
+
+		orderService.placePendingOrder(orderService.createPendingOrder(users.get(1)).getId(), users.get(1));
+		assertEquals(0, inventoryService.getStock(product.getId()).getStock());
+	}
+
+	@Test
+	void placingAChangedPendingOrderSettlesTheDifference() {
+		Product fewer = newProduct("fewer", 5);
+		Product more = newProduct("more", 5);
+		User user = newUsers("changed", 1).get(0);
+		Map<Integer, Product> products = new HashMap<>();
+		products.put(fewer.getId(), fewer);
+		products.put(more.getId(), more);
+		cartService.applyCartOperations(user, Arrays.asList(new CartOperationDto(CartOperationType.set, fewer.getId(), 2),
+				new CartOperationDto(CartOperationType.set, more.getId(), 1)), products);
+
+		Order order = orderService.createPendingOrder(user);
+		assertEquals(3, inventoryService.getStock(fewer.getId()).getStock());
+		assertEquals(4, inventoryService.getStock(more.getId()).getStock());
+
+		cartService.applyCartOperations(user, Arrays.asList(new CartOperationDto(CartOperationType.set, fewer.getId(), 1),
+				new CartOperationDto(CartOperationType.set, more.getId(), 3)), products);
+		orderService.placePendingOrder(order.getId(), user);
+		assertEquals(4, inventoryService.getStock(fewer.getId()).getStock());
+		assertEquals(2, inventoryService.getStock(more.getId()).getStock());
+	}
+
+	private Product newProduct(String name, int stock) {
+		Category category = categoryRepository.save(new Category(name, "description", "image"));
+		Product product = productRepository.save(new Product(name, "image", 10, "description", category));
+		inventoryService.addStock(product.getId(), stock);
+		return product;
+	}
+
+	private List<User> newUsers(String prefix, int count) {
+		List<User> users = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			users.add(new User("first", "last", prefix + i + "@example.com", Role.user, "secret"));
+		}
+		return userRepository.saveAll(users);
+	}
+
+	private void addToCart(User user, Product product) {
+		AddToCartDto addToCartDto = new AddToCartDto();
+		addToCartDto.setProductId(product.getId());
+		addToCartDto.setQuantity(1);
+		cartService.addToCart(addToCartDto, product, user);
+	}
+}
@@ -0,0 +1,158 @@
+package com.company.ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.company.ecommerce.dto.cart.AddToCartDto;
+import com.company.ecommerce.dto.order.OrderPageDto;
+import com.company.ecommerce.dto.order.OrderSummaryDto;
+import com.company.ecommerce.dto.order.OrderSummaryPageDto;
+import com.company.ecommerce.dto.order.OrderSummaryRebuildDto;
+import com.company.ecommerce.enums.Role;
+import com.company.ecommerce.exception.runtime.BadRequestException;
+import com.company.ecommerce.model.Category;
+import com.company.ecommerce.model.Order;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.repository.CategoryRepository;
+import com.company.ecommerce.repository.OrderSummaryRepository;
+import com.company.ecommerce.repository.ProductRepository;
+import com.company.ecommerce.repository.UserRepository;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:order-history-tests",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"ecommerce.orders.summary.rebuild.chunk-size=2" })
+class OrderHistoryTests {
+
+	@Autowired
+	OrderService orderService;
+
+	@Autowired
+	CartService cartService;
+
+	@Autowired
+	CategoryRepository categoryRepository;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	OrderSummaryService orderSummaryService;
+
+	@Autowired
+	OrderSummaryRepository orderSummaryRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void eachPageIsLoadedWithItsItemsInTwoStatements() {
+		User user = placeOrders("history", 7);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		List<Integer> orderIds = new ArrayList<>();
+		String after = null;
+		do {
+			statistics.clear();
+			OrderPageDto page = orderService.listOrders(user, 3, after);
+			// outside of a transaction, so anything not fetched would fail here
+			for (Order order : page.getOrders()) {
+				assertEquals(3, order.getOrderItems().size());
+				order.getOrderItems().forEach(orderItem -> orderItem.getProduct().getName());
+				orderIds.add(order.getId());
+			}
+			assertEquals(2, statistics.getPrepareStatementCount());
+			after = page.getNextCursor();
+		} while (after != null);
+
+		assertEquals(7, orderIds.size());
+		for (int i = 1; i < orderIds.size(); i++) {
+			assertTrue(orderIds.get(i - 1) > orderIds.get(i));
+		}
+	}
+
+	@Test
+	void summariesAreReadInOneStatementAndRebuiltFromTheOrders() {
+		User user = placeOrders("summary", 5);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		List<OrderSummaryDto> summaries = new ArrayList<>();
+		String after = null;
+		do {
+			statistics.clear();
+			OrderSummaryPageDto page = orderService.listOrderSummaries(user, 2, after);
+			assertEquals(1, statistics.getPrepareStatementCount());
+			summaries.addAll(page.getSummaries());
+			after = page.getNextCursor();
+		} while (after != null);
+		assertEquals(5, summaries.size());
+		for (OrderSummaryDto summary : summaries) {
+			assertEquals(6, summary.getItemCount());
+			assertEquals(12.0, summary.getTotalPrice());
+			assertTrue(summary.getFirstProductName().startsWith("summary "));
+		}
+
+		orderSummaryRepository.deleteAll();
+		OrderSummaryRebuildDto rebuild = orderSummaryService.rebuild();
+		assertTrue(rebuild.getChunks() > 1);
+		List<OrderSummaryDto> rebuilt = orderService.listOrderSummaries(user, 5, null).getSummaries();
+		assertEquals(summaries.size(), rebuilt.size());
+		for (int i = 0; i < summaries.size(); i++) {
+			assertEquals(summaries.get(i).getOrderId(), rebuilt.get(i).getOrderId());
+			assertEquals(summaries.get(i).getItemCount(), rebuilt.get(i).getItemCount());
+			assertEquals(summaries.get(i).getTotalPrice(), rebuilt.get(i).getTotalPrice());
+			assertEquals(summaries.get(i).getFirstProductName(), rebuilt.get(i).getFirstProductName());
+		}
+	}
+
+	@Test
+	void cursorWithAnOutOfRangeIdIsRejected() {
+		User user = placeOrders("cursor", 1);
+		String cursor = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((System.currentTimeMillis() + ":4294967297").getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(BadRequestException.class, () -> orderService.listOrders(user, 2, cursor));
+		assertThrows(BadRequestException.class, () -> orderService.listOrderSummaries(user, 2, cursor));
+	}
+
+	/**
+	 * Places the given number of orders of two units each of three products,
+	 * priced 1, 2 and 3, for a new user.
+	 */
+	private User placeOrders(String name, int orders) {
+		Category category = categoryRepository.save(new Category(name, "description", "image"));
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			products.add(new Product(name + " " + i, "image", 1 + i, "description", category));
+		}
+		productRepository.saveAll(products);
+		User user = userRepository.save(new User("first", "last", name + "@example.com", Role.user, "secret"));
+		for (int i = 0; i < orders; i++) {
+			for (Product product : products) {
+				AddToCartDto addToCartDto = new AddToCartDto();
+				addToCartDto.setProductId(product.getId());
+				addToCartDto.setQuantity(2);
+				cartService.addToCart(addToCartDto, product, user);
+			}
+			orderService.placeOrder(user);
+		}
+		return user;
+	}
+}
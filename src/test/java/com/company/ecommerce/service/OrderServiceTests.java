@@ -0,0 +1,91 @@
+package com.company.ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.company.ecommerce.dto.cart.AddToCartDto;
+import com.company.ecommerce.enums.Role;
+import com.company.ecommerce.model.Category;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.repository.CategoryRepository;
+import com.company.ecommerce.repository.OrderItemsRepository;
+import com.company.ecommerce.repository.ProductRepository;
+import com.company.ecommerce.repository.UserRepository;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:order-service-tests",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+class OrderServiceTests {
+
+	/**
+	 * Reading the cart lines with their products, inserting the order, inserting
+	 * all items, inserting the order summary and the outbox event, deleting all
+	 * lines and updating the cart summary. Inserts and deletes of many rows are
+	 * sent as one JDBC batch each. Taking the stock is one more batch, sent
+	 * through JDBC and so not counted here.
+	 */
+	private static final long CHECKOUT_STATEMENTS = 7;
+
+	@Autowired
+	OrderService orderService;
+
+	@Autowired
+	CartService cartService;
+
+	@Autowired
+	CategoryRepository categoryRepository;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	OrderItemsRepository orderItemsRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void placeOrderStatementsDoNotGrowWithTheNumberOfLines() {
+		Category category = categoryRepository.save(new Category("statements", "description", "image"));
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			products.add(new Product("product " + i, "image", 1 + i, "description", category));
+		}
+		productRepository.saveAll(products);
+		User user = userRepository.save(new User("first", "last", "statements@example.com", Role.user, "secret"));
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		// the first checkout also fetches the first blocks of order and item ids
+		checkout(user, products.subList(0, 1), statistics);
+
+		assertEquals(CHECKOUT_STATEMENTS, checkout(user, products.subList(0, 2), statistics));
+		assertEquals(CHECKOUT_STATEMENTS, checkout(user, products, statistics));
+		assertEquals(43, orderItemsRepository.count());
+		assertEquals(0, cartService.getCartItems(user).size());
+	}
+
+	private long checkout(User user, List<Product> products, Statistics statistics) {
+		for (Product product : products) {
+			AddToCartDto addToCartDto = new AddToCartDto();
+			addToCartDto.setProductId(product.getId());
+			addToCartDto.setQuantity(2);
+			cartService.addToCart(addToCartDto, product, user);
+		}
+		statistics.clear();
+		orderService.placeOrder(user);
+		return statistics.getPrepareStatementCount();
+	}
+}
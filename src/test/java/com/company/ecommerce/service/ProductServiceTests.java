@@ -0,0 +1,194 @@
+package com.company.ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.company.ecommerce.dto.product.BulkImportErrorDto;
+import com.company.ecommerce.dto.product.BulkImportResultDto;
+import com.company.ecommerce.dto.product.ProductDto;
+import com.company.ecommerce.dto.product.ProductPageDto;
+import com.company.ecommerce.enums.ProductSort;
+import com.company.ecommerce.model.Category;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.repository.CategoryRepository;
+import com.company.ecommerce.search.ProductSearchIndex;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-service-tests")
+class ProductServiceTests {
+
+	@Autowired
+	ProductService productService;
+
+	@Autowired
+	ProductSearchIndex searchIndex;
+
+	@Autowired
+	ProductImportService productImportService;
+
+	@Autowired
+	CategoryRepository categoryRepository;
+
+	@Test
+	void keysetPagesWalkEqualSortKeysOnceInOrder() {
+		Category category = newCategory("keyset");
+		double[] prices = { 5, 3, 5, 5, 3, 7, 5 };
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < prices.length; i++) {
+			addProduct(i % 2 == 0 ? "same" : "other", prices[i], category);
+		}
+		for (double price : new double[] { 3, 5, 7 }) {
+			for (ProductDto product : listAll(ProductSort.id, category)) {
+				if (product.getPrice() == price) {
+					expected.add(product.getId());
+				}
+			}
+		}
+
+		List<Integer> byPrice = new ArrayList<>();
+		for (ProductDto product : listAll(ProductSort.price, category)) {
+			byPrice.add(product.getId());
+		}
+		assertEquals(expected, byPrice);
+
+		List<ProductDto> byName = listAll(ProductSort.name, category);
+		assertEquals(prices.length, byName.size());
+		for (int i = 1; i < byName.size(); i++) {
+			ProductDto previous = byName.get(i - 1);
+			ProductDto product = byName.get(i);
+			int byKey = previous.getName().compareTo(product.getName());
+			assertTrue(byKey < 0 || (byKey == 0 && previous.getId() < product.getId()));
+		}
+	}
+
+	@Test
+	void cachedProductsAreReplacedAfterUpdateProduct() {
+		Category category = newCategory("cached");
+		Category other = newCategory("cached other");
+		Product product = addProduct("before", 4, category);
+		List<Integer> ids = Collections.singletonList(product.getId());
+		listAll(ProductSort.id, category);
+		ProductDto snapshot = productService.getProductDtosByIds(ids).get(0);
+		snapshot.setName("changed by the caller");
+		long hits = productService.getCacheStats().getHits();
+
+		assertEquals("before", productService.getProductDtosByIds(ids).get(0).getName());
+		assertEquals("before", listAll(ProductSort.id, category).get(0).getName());
+		assertTrue(productService.getCacheStats().getHits() >= hits + 2);
+
+		productService.updateProduct(product.getId(),
+				new ProductDto(null, "after", "image", 6, "description", other.getId()), other);
+
+		ProductDto updated = productService.getProductDtosByIds(ids).get(0);
+		assertEquals("after", updated.getName());
+		assertEquals(6, updated.getPrice());
+		assertEquals(other.getId(), updated.getCategoryId());
+		assertTrue(listAll(ProductSort.id, category).isEmpty());
+		assertEquals("after", listAll(ProductSort.id, other).get(0).getName());
+	}
+
+	@Test
+	void lastSearchTokenIsMatchedAsPrefix() {
+		Category category = newCategory("search");
+		Product exact = addProduct("zircon ruby", 1, category);
+		addProduct("zirconia rubyx", 1, category);
+		Product prefixed = addProduct("zirconia ruby", 1, category);
+
+		// ruby must match exactly, the repeated zircon typed last also as a prefix
+		assertEquals(Arrays.asList(exact.getId(), prefixed.getId()), searchIds("zircon ruby zircon", 0, 10));
+		assertThrows(IllegalArgumentException.class, () -> searchIndex.search("zircon", -1, 10));
+	}
+
+	@Test
+	void searchResultsAreRankedByBm25() {
+		Category category = newCategory("ranking");
+		Product once = addProduct("garnet", "a stone from a long description naming it only in its title", 1,
+				category);
+		Product often = addProduct("garnet", "garnet garnet", 1, category);
+
+		assertEquals(Arrays.asList(often.getId(), once.getId()), searchIds("garnet", 0, 2));
+		assertEquals(Arrays.asList(often.getId(), once.getId()), searchIds("garn", 0, 2));
+		assertEquals(Collections.singletonList(once.getId()), searchIds("garnet", 1, 1));
+	}
+
+	@Test
+	void failedImportRowsAreReportedAndTheOthersImported() throws IOException {
+		Category category = newCategory("import");
+		String feed = product("imported 1", category.getId()) + "\n"
+				+ "{\"name\":\n"
+				+ product("unknown category", Integer.MAX_VALUE) + "\n"
+				+ "{\"imageURL\":\"image\",\"price\":1,\"description\":\"description\",\"categoryId\":"
+				+ category.getId() + "}\n"
+				+ product("imported 2", category.getId()) + "\n";
+
+		BulkImportResultDto result = productImportService
+				.importProducts(new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(2, result.getImported());
+		assertEquals(3, result.getFailed());
+		Set<Integer> failedRows = new TreeSet<>();
+		for (BulkImportErrorDto error : result.getErrors()) {
+			failedRows.add(error.getRow());
+		}
+		assertEquals(new TreeSet<>(Arrays.asList(2, 3, 4)), failedRows);
+		List<String> names = new ArrayList<>();
+		for (ProductDto product : listAll(ProductSort.id, category)) {
+			names.add(product.getName());
+		}
+		assertEquals(Arrays.asList("imported 1", "imported 2"), names);
+	}
+
+	private static String product(String name, Integer categoryId) {
+		return "{\"name\":\"" + name + "\",\"imageURL\":\"image\",\"price\":1,\"description\":\"description\",\"categoryId\":"
+				+ categoryId + "}";
+	}
+
+	private List<Integer> searchIds(String query, int page, int size) {
+		List<Integer> ids = new ArrayList<>();
+		for (ProductDto product : productService.searchProducts(query, page, size).getProducts()) {
+			ids.add(product.getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * Lists the category two products at a time, following the cursors.
+	 */
+	private List<ProductDto> listAll(ProductSort sort, Category category) {
+		List<ProductDto> products = new ArrayList<>();
+		String after = null;
+		do {
+			ProductPageDto page = productService.listProducts(2, after, sort, null, category.getId());
+			products.addAll(page.getProducts());
+			after = page.getNextCursor();
+		} while (after != null);
+		return products;
+	}
+
+	private Category newCategory(String name) {
+		return categoryRepository.save(new Category(name, "description", "image"));
+	}
+
+	private Product addProduct(String name, double price, Category category) {
+		return addProduct(name, "description", price, category);
+	}
+
+	private Product addProduct(String name, String description, double price, Category category) {
+		return productService.addProduct(new ProductDto(null, name, "image", price, description, category.getId()),
+				category);
+	}
+}
@@ -0,0 +1,131 @@
+package com.company.ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.company.ecommerce.dto.analytics.SalesBackfillDto;
+import com.company.ecommerce.dto.analytics.SalesRowDto;
+import com.company.ecommerce.dto.cart.AddToCartDto;
+import com.company.ecommerce.enums.Role;
+import com.company.ecommerce.enums.SalesGroupBy;
+import com.company.ecommerce.model.Category;
+import com.company.ecommerce.model.OutboxEvent;
+import com.company.ecommerce.model.Product;
+import com.company.ecommerce.model.User;
+import com.company.ecommerce.repository.CategoryRepository;
+import com.company.ecommerce.repository.OutboxEventRepository;
+import com.company.ecommerce.repository.ProductRepository;
+import com.company.ecommerce.repository.UserRepository;
+
+// the rollups are only changed by the tests, not by the relay
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:sales-rollup-tests",
+		"ecommerce.analytics.rollups.enabled=false", "ecommerce.outbox.relay.interval-ms=3600000" })
+class SalesRollupTests {
+
+	private static final LocalDate TO = LocalDate.now(ZoneOffset.UTC);
+	private static final LocalDate FROM = TO.minusDays(1);
+
+	@Autowired
+	SalesRollupService salesRollupService;
+
+	@Autowired
+	OrderService orderService;
+
+	@Autowired
+	CartService cartService;
+
+	@Autowired
+	CategoryRepository categoryRepository;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	OutboxEventRepository outboxEventRepository;
+
+	@Test
+	void redeliveredBatchIsCountedOnce() throws Exception {
+		Category category = categoryRepository.save(new Category("redelivered", "description", "image"));
+		Product hat = productRepository.save(new Product("hat", "image", 2.345, "description", category));
+		Product shoe = productRepository.save(new Product("shoe", "image", 10, "description", category));
+		User user = newUser("redelivered");
+		placeOrder(user, hat, 3);
+		placeOrder(user, shoe, 1);
+
+		List<OutboxEvent> batch = outboxEventRepository.findAll();
+		salesRollupService.apply(batch);
+		List<String> counted = sales(SalesGroupBy.category);
+		assertEquals(0, salesRollupService.apply(batch));
+		assertEquals(counted, sales(SalesGroupBy.category));
+		assertTrue(counted.contains(row(category.getId(), 4, 17.05)));
+
+		// a batch holding counted and new events only counts the new ones
+		placeOrder(user, hat, 1);
+		assertEquals(1, salesRollupService.apply(outboxEventRepository.findAll()));
+		assertTrue(sales(SalesGroupBy.category).contains(row(category.getId(), 5, 19.40)));
+	}
+
+	@Test
+	void backfillWritesTheRowsOfTheIncrementalPath() throws Exception {
+		Category first = categoryRepository.save(new Category("backfilled", "description", "image"));
+		Category second = categoryRepository.save(new Category("backfilled too", "description", "image"));
+		Product cap = productRepository.save(new Product("cap", "image", 0.125, "description", first));
+		Product sock = productRepository.save(new Product("sock", "image", 1.005, "description", second));
+		User user = newUser("backfilled");
+		placeOrder(user, cap, 7);
+		placeOrder(user, sock, 2);
+		placeOrder(user, cap, 1);
+		salesRollupService.apply(outboxEventRepository.findAll());
+
+		List<List<String>> incremental = new ArrayList<>();
+		for (SalesGroupBy groupBy : SalesGroupBy.values()) {
+			incremental.add(sales(groupBy));
+		}
+		SalesBackfillDto backfill = salesRollupService.backfill(FROM, TO);
+		List<List<String>> backfilled = new ArrayList<>();
+		for (SalesGroupBy groupBy : SalesGroupBy.values()) {
+			backfilled.add(sales(groupBy));
+		}
+
+		assertEquals(incremental, backfilled);
+		assertEquals(incremental.get(SalesGroupBy.product.ordinal()).size(), backfill.getProductRows());
+	}
+
+	private List<String> sales(SalesGroupBy groupBy) {
+		List<String> rows = new ArrayList<>();
+		for (SalesRowDto row : salesRollupService.getSales(FROM, TO, groupBy).getRows()) {
+			rows.add(row.getDay() != null ? row.getDay() + " " + row(null, row.getUnits(), row.getRevenue())
+					: row(row.getId(), row.getUnits(), row.getRevenue()));
+		}
+		return rows;
+	}
+
+	private static String row(Integer id, long units, double revenue) {
+		return id + " " + units + " " + String.format(Locale.ROOT, "%.2f", revenue);
+	}
+
+	private void placeOrder(User user, Product product, int quantity) throws Exception {
+		AddToCartDto addToCartDto = new AddToCartDto();
+		addToCartDto.setProductId(product.getId());
+		addToCartDto.setQuantity(quantity);
+		cartService.addToCart(addToCartDto, product, user);
+		orderService.placeOrder(user);
+	}
+
+	private User newUser(String name) {
+		return userRepository.save(new User("first", "last", name + "@example.com", Role.user, "secret"));
+	}
+}